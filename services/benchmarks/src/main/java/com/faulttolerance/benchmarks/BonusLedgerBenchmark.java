@@ -0,0 +1,135 @@
+package com.faulttolerance.benchmarks;
+
+import com.faulttolerance.fidelity.ledger.BonusLedger;
+import com.faulttolerance.fidelity.ledger.LedgerProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BonusLedger}: vazão de créditos (mapa em shards + WAL, sem esperar o group commit) e tempo
+ * para recuperar o ledger após uma parada abrupta, a partir de um snapshot com {@code users} saldos
+ * e de {@code walRecords} créditos posteriores no WAL.
+ */
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class BonusLedgerBenchmark {
+
+    static BonusLedger open(Path directory) {
+        // Snapshots periódicos ficam fora da medição
+        return new BonusLedger(new LedgerProperties(directory.toString(), 64, 65536, 16 << 20, 5,
+                TimeUnit.HOURS.toMillis(1)), new SimpleMeterRegistry());
+    }
+
+    @State(Scope.Benchmark)
+    public static class Writes {
+        @Param({"1024", "1048576"})
+        int users;
+
+        Path directory;
+        BonusLedger ledger;
+
+        @Setup
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("benchmark-ledger");
+            ledger = open(directory);
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            ledger.close();
+            FileSystemUtils.deleteRecursively(directory);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Recovery {
+        @Param({"1048576"})
+        int users;
+
+        @Param({"100000"})
+        int walRecords;
+
+        Path golden;
+        Path directory;
+        BonusLedger recovered;
+
+        /**
+         * Monta uma vez o diretório de referência: snapshot com todos os usuários e o WAL com os
+         * créditos seguintes, copiado antes do fechamento (que gravaria um snapshot final).
+         */
+        @Setup(Level.Trial)
+        public void prepare() throws IOException {
+            Path source = Files.createTempDirectory("benchmark-ledger-source");
+            golden = Files.createTempDirectory("benchmark-ledger-golden");
+            BonusLedger ledger = open(source);
+            for (long user = 1; user <= users; user++) {
+                ledger.add(user, 10);
+            }
+            ledger.snapshot();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < walRecords; i++) {
+                ledger.add(random.nextLong(1, users + 1L), 10);
+            }
+            ledger.durable().join();
+            FileSystemUtils.copyRecursively(source, golden);
+            ledger.close();
+            FileSystemUtils.deleteRecursively(source);
+        }
+
+        @Setup(Level.Iteration)
+        public void copy() throws IOException {
+            directory = Files.createTempDirectory("benchmark-ledger-recovery");
+            FileSystemUtils.copyRecursively(golden, directory);
+        }
+
+        @TearDown(Level.Iteration)
+        public void close() throws IOException {
+            recovered.close();
+            FileSystemUtils.deleteRecursively(directory);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            FileSystemUtils.deleteRecursively(golden);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @Threads(8)
+    public long add(Writes state) {
+        return state.ledger.add(ThreadLocalRandom.current().nextLong(state.users), 10);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public long recover(Recovery state) {
+        state.recovered = open(state.directory);
+        return state.recovered.users();
+    }
+}
@@ -0,0 +1,88 @@
+package com.faulttolerance.benchmarks;
+
+import com.faulttolerance.common.fault.FaultInjector;
+import com.faulttolerance.fidelity.ledger.BonusLeaderboard;
+import com.faulttolerance.fidelity.ledger.BonusLedger;
+import com.faulttolerance.fidelity.model.BonusEntry;
+import com.faulttolerance.fidelity.model.BonusResult;
+import com.faulttolerance.fidelity.service.FidelityService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Acúmulo de bônus no {@link FidelityService} com várias threads disputando os mesmos usuários.
+ * {@code users=1} é o pior caso: todas as threads atualizam a mesma entrada. Os futures devolvidos
+ * não são aguardados: a medição cobre o crédito no ledger e no leaderboard, não a espera pelo group commit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class FidelityBenchmark {
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"1", "1024", "1048576"})
+    private int users;
+
+    private Path ledgerDirectory;
+    private BonusLedger ledger;
+    private BonusLeaderboard leaderboard;
+    private FidelityService fidelityService;
+
+    @Setup
+    public void setUp() throws IOException {
+        ledgerDirectory = Files.createTempDirectory("benchmark-fidelity");
+        ledger = BonusLedgerBenchmark.open(ledgerDirectory);
+        leaderboard = new BonusLeaderboard(ledger, 100, new SimpleMeterRegistry());
+        fidelityService = new FidelityService(ledger, leaderboard, FaultInjector.disabled());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        leaderboard.close();
+        ledger.close();
+        FileSystemUtils.deleteRecursively(ledgerDirectory);
+    }
+
+    @Benchmark
+    public CompletableFuture<Void> handleBonus() {
+        return fidelityService.handleBonus(ThreadLocalRandom.current().nextLong(users), 10);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public CompletableFuture<List<BonusResult>> handleBonusBatch() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<BonusEntry> entries = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            entries.add(new BonusEntry(random.nextLong(users), 10));
+        }
+        return fidelityService.handleBonusBatch(entries);
+    }
+}
@@ -0,0 +1,53 @@
+package com.faulttolerance.benchmarks;
+
+import com.faulttolerance.store.inventory.InventoryService;
+import com.faulttolerance.store.inventory.Reservation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reserva e confirmação de estoque sob contenção. {@code products=1} concentra todas as threads em
+ * um único produto; {@code stripes=1} equivale a um contador único por produto.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class InventoryBenchmark {
+
+    @Param({"1", "8", "32"})
+    private int stripes;
+
+    @Param({"1", "64"})
+    private int products;
+
+    private InventoryService inventoryService;
+
+    @Setup
+    public void setUp() {
+        inventoryService = new InventoryService(new SimpleMeterRegistry(), Long.MAX_VALUE / 4, stripes, 0);
+    }
+
+    @Benchmark
+    public void reserveAndCommit() {
+        Reservation reservation = inventoryService.reserve(ThreadLocalRandom.current().nextLong(products), 1);
+        inventoryService.commit(reservation);
+    }
+}
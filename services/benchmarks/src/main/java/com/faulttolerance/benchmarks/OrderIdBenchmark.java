@@ -0,0 +1,69 @@
+package com.faulttolerance.benchmarks;
+
+import com.faulttolerance.store.order.BlockOrderIdAllocator;
+import com.faulttolerance.store.order.FileLeaseStore;
+import com.faulttolerance.store.order.OrderIdAllocator;
+import com.faulttolerance.store.order.TimeOrderedIdAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Geradores de id de pedido comparados a um {@link AtomicLong} em memória, que é o limite
+ * superior (e não sobrevive a reinícios nem a réplicas).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class OrderIdBenchmark {
+
+    @Param({"atomic", "block", "time"})
+    private String allocator;
+
+    @Param({"1000"})
+    private int blockSize;
+
+    private Path leaseDirectory;
+    private OrderIdAllocator orderIdAllocator;
+
+    @Setup
+    public void setUp() throws IOException {
+        leaseDirectory = Files.createTempDirectory("benchmark-order-id");
+        orderIdAllocator = switch (allocator) {
+            case "block" -> new BlockOrderIdAllocator(new FileLeaseStore(leaseDirectory.resolve("order-id.lease")), blockSize);
+            case "time" -> new TimeOrderedIdAllocator(0, new FileLeaseStore(leaseDirectory.resolve("order-id.high-water")));
+            default -> new AtomicLong()::incrementAndGet;
+        };
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(leaseDirectory);
+    }
+
+    @Benchmark
+    public long nextId() {
+        return orderIdAllocator.nextId();
+    }
+}
@@ -0,0 +1,72 @@
+package com.faulttolerance.benchmarks;
+
+import com.faulttolerance.common.fault.FaultInjector;
+import com.faulttolerance.store.catalog.ProductCatalog;
+import com.faulttolerance.store.model.Product;
+import com.faulttolerance.store.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas ao catálogo do store com 1 e 10 milhões de produtos. A memória ocupada pelo catálogo
+ * é impressa na preparação de cada fork; use {@code -prof gc} para a alocação por consulta.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProductServiceBenchmark {
+    private static final int BULK_SIZE = 100;
+
+    @Param({"1000000", "10000000"})
+    private int catalogSize;
+
+    private ProductService productService;
+
+    @Setup
+    public void setUp() {
+        ProductCatalog.Builder builder = ProductCatalog.builder(catalogSize);
+        for (int id = 1; id <= catalogSize; id++) {
+            builder.add(id, "Product " + id, 1000 + id % 100_000);
+        }
+        ProductCatalog catalog = builder.build();
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        System.out.printf("Catalog: products=%d, footprintBytes=%d, heapUsedBytes=%d%n",
+                catalog.size(), catalog.footprintBytes(), runtime.totalMemory() - runtime.freeMemory());
+        productService = new ProductService(catalog, FaultInjector.disabled());
+    }
+
+    @Benchmark
+    public Product getProduct() {
+        return productService.getProduct(ThreadLocalRandom.current().nextLong(1, catalogSize + 1L)).join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public List<Product> getProducts() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Long> ids = new ArrayList<>(BULK_SIZE);
+        for (int i = 0; i < BULK_SIZE; i++) {
+            ids.add(random.nextLong(1, catalogSize + 1L));
+        }
+        return productService.getProducts(ids).join();
+    }
+}
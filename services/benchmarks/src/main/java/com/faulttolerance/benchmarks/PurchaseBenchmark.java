@@ -0,0 +1,143 @@
+package com.faulttolerance.benchmarks;
+
+import com.faulttolerance.common.fault.FaultInjector;
+import com.faulttolerance.ecommerce.cache.ExchangeRateCache;
+import com.faulttolerance.ecommerce.cache.ProductCache;
+import com.faulttolerance.ecommerce.client.DownstreamClient;
+import com.faulttolerance.ecommerce.model.PurchaseRequest;
+import com.faulttolerance.ecommerce.model.PurchaseResponse;
+import com.faulttolerance.ecommerce.outbox.BonusOutbox;
+import com.faulttolerance.ecommerce.resilience.DownstreamResilience;
+import com.faulttolerance.ecommerce.resilience.RequestHedger;
+import com.faulttolerance.ecommerce.service.PurchaseService;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.io.support.ResourcePropertySource;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code PurchaseService.processPurchase} com os componentes reais do ecommerce (caches, resiliência,
+ * outbox) montados em um contexto Spring mínimo e os serviços downstream substituídos por
+ * {@link StubDownstreamClient}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class PurchaseBenchmark {
+    private static final int PRODUCTS = 1000;
+    private static final int USERS = 10_000;
+
+    @Param({"true", "false"})
+    private boolean ft;
+
+    private Path outboxDirectory;
+    private AnnotationConfigApplicationContext context;
+    private PurchaseService purchaseService;
+
+    @Setup
+    public void setUp() throws IOException {
+        outboxDirectory = Files.createTempDirectory("benchmark-outbox");
+        context = new AnnotationConfigApplicationContext();
+        MutablePropertySources propertySources = context.getEnvironment().getPropertySources();
+        propertySources.addFirst(new ResourcePropertySource("classpath:purchase-benchmark.properties"));
+        propertySources.addFirst(new MapPropertySource("outbox",
+                Map.of("outbox.directory", outboxDirectory.toString())));
+        context.register(PurchaseContext.class);
+        context.refresh();
+        purchaseService = context.getBean(PurchaseService.class);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(outboxDirectory);
+    }
+
+    @Benchmark
+    public PurchaseResponse processPurchase() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        PurchaseRequest request = new PurchaseRequest(random.nextLong(1, USERS + 1), random.nextLong(1, PRODUCTS + 1), ft);
+        return purchaseService.processPurchase(request).join();
+    }
+
+    @Configuration
+    @Import({PurchaseService.class, ProductCache.class, ExchangeRateCache.class, BonusOutbox.class,
+            DownstreamResilience.class, RequestHedger.class})
+    static class PurchaseContext {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        FaultInjector faultInjector() {
+            return FaultInjector.disabled();
+        }
+
+        @Bean(destroyMethod = "shutdownNow")
+        ScheduledExecutorService backgroundExecutor() {
+            return Executors.newScheduledThreadPool(2);
+        }
+
+        @Bean(destroyMethod = "shutdownNow")
+        ScheduledExecutorService timeLimiterExecutor() {
+            return Executors.newSingleThreadScheduledExecutor();
+        }
+
+        @Bean
+        DownstreamClient downstreamClient() {
+            return new StubDownstreamClient();
+        }
+
+        @Bean
+        CircuitBreakerRegistry circuitBreakerRegistry() {
+            return CircuitBreakerRegistry.ofDefaults();
+        }
+
+        @Bean
+        TimeLimiterRegistry timeLimiterRegistry() {
+            return TimeLimiterRegistry.ofDefaults();
+        }
+
+        @Bean
+        BulkheadRegistry bulkheadRegistry() {
+            return BulkheadRegistry.ofDefaults();
+        }
+    }
+}
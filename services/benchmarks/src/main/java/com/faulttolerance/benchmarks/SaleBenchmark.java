@@ -0,0 +1,86 @@
+package com.faulttolerance.benchmarks;
+
+import com.faulttolerance.common.fault.FaultInjector;
+import com.faulttolerance.store.catalog.ProductCatalog;
+import com.faulttolerance.store.inventory.InventoryService;
+import com.faulttolerance.store.journal.JournalProperties;
+import com.faulttolerance.store.journal.SalesJournal;
+import com.faulttolerance.store.order.BlockOrderIdAllocator;
+import com.faulttolerance.store.order.FileLeaseStore;
+import com.faulttolerance.store.order.OrderIdAllocator;
+import com.faulttolerance.store.order.TimeOrderedIdAllocator;
+import com.faulttolerance.store.service.ProductService;
+import com.faulttolerance.store.service.SaleService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code SaleService.processSale} completo: consulta ao catálogo, reserva e confirmação no estoque,
+ * geração do id do pedido por cada um dos modos de {@code order-id.mode} e registro no journal de vendas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class SaleBenchmark {
+    private static final int PRODUCTS = 1000;
+
+    @Param({"block", "time"})
+    private String orderIdMode;
+
+    private Path leaseDirectory;
+    private SalesJournal journal;
+    private SaleService saleService;
+
+    @Setup
+    public void setUp() throws IOException {
+        ProductCatalog.Builder builder = ProductCatalog.builder(PRODUCTS);
+        for (int id = 1; id <= PRODUCTS; id++) {
+            builder.add(id, "Product " + id, 1000 + id);
+        }
+        ProductService productService = new ProductService(builder.build(), FaultInjector.disabled());
+        InventoryService inventoryService = new InventoryService(new SimpleMeterRegistry(), Long.MAX_VALUE / 4, 8, 0);
+
+        leaseDirectory = Files.createTempDirectory("benchmark-order-id");
+        OrderIdAllocator allocator = "time".equals(orderIdMode)
+                ? new TimeOrderedIdAllocator(0, new FileLeaseStore(leaseDirectory.resolve("order-id.high-water")))
+                : new BlockOrderIdAllocator(new FileLeaseStore(leaseDirectory.resolve("order-id.lease")), 1000);
+        journal = new SalesJournal(new JournalProperties(leaseDirectory.resolve("journal").toString(),
+                8192, 512, 10, true, 1000, 1000), List.of(), new SimpleMeterRegistry());
+        saleService = new SaleService(productService, inventoryService, allocator, journal, FaultInjector.disabled());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.close();
+        FileSystemUtils.deleteRecursively(leaseDirectory);
+    }
+
+    @Benchmark
+    public Long processSale() {
+        return saleService.processSale(ThreadLocalRandom.current().nextLong(1, PRODUCTS + 1)).join();
+    }
+}
@@ -0,0 +1,60 @@
+package com.faulttolerance.benchmarks;
+
+import com.faulttolerance.ecommerce.client.DownstreamClient;
+import com.faulttolerance.ecommerce.model.BonusEntry;
+import com.faulttolerance.ecommerce.model.BonusResult;
+import com.faulttolerance.ecommerce.model.ProductResponse;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+/**
+ * Store, exchange e fidelity em processo: toda chamada completa na hora e nunca falha, para que o
+ * benchmark meça apenas o pipeline do ecommerce.
+ */
+class StubDownstreamClient implements DownstreamClient {
+    private final AtomicLong transactions = new AtomicLong();
+
+    @Override
+    public CompletableFuture<ProductResponse> getProduct(Long productId) {
+        return CompletableFuture.completedFuture(product(productId));
+    }
+
+    @Override
+    public CompletableFuture<List<ProductResponse>> getProducts(int limit) {
+        return CompletableFuture.completedFuture(LongStream.rangeClosed(1, limit).mapToObj(this::product).toList());
+    }
+
+    @Override
+    public CompletableFuture<List<ProductResponse>> getProducts(List<Long> productIds) {
+        return CompletableFuture.completedFuture(productIds.stream().map(this::product).toList());
+    }
+
+    @Override
+    public CompletableFuture<Double> getExchangeRate() {
+        return CompletableFuture.completedFuture(5.0);
+    }
+
+    @Override
+    public CompletableFuture<String> sell(Long productId) {
+        return CompletableFuture.completedFuture(Long.toString(transactions.incrementAndGet()));
+    }
+
+    @Override
+    public CompletableFuture<Void> registerBonus(Long userId, int bonus) {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<List<BonusResult>> registerBonuses(List<BonusEntry> entries) {
+        return CompletableFuture.completedFuture(entries.stream()
+                .map(entry -> new BonusResult(entry.user(), true, entry.bonus().longValue(), null))
+                .toList());
+    }
+
+    private ProductResponse product(long productId) {
+        return new ProductResponse(productId, "Product " + productId, 10.0 + productId % 90);
+    }
+}
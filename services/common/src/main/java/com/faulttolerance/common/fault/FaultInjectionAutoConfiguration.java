@@ -0,0 +1,26 @@
+package com.faulttolerance.common.fault;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Registra o {@link FaultInjector} e o endpoint {@code faults} em todo serviço que depende do módulo {@code common}.
+ */
+@AutoConfiguration
+@EnableConfigurationProperties(FaultProperties.class)
+public class FaultInjectionAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public FaultInjector faultInjector(FaultProperties properties, MeterRegistry registry) {
+        return new FaultInjector(properties, registry);
+    }
+
+    @Bean
+    public FaultsEndpoint faultsEndpoint(FaultInjector faultInjector) {
+        return new FaultsEndpoint(faultInjector);
+    }
+}
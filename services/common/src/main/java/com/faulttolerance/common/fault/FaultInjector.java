@@ -0,0 +1,113 @@
+package com.faulttolerance.common.fault;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Registro dos {@link FaultPoint}s de um serviço.
+ * <p>
+ * Os pontos vêm de {@code faults.points.*}; um ponto pedido pelo código sem configuração começa sem
+ * falhas e pode ser ativado depois por {@code /actuator/faults}. Com a mesma semente e a mesma ordem
+ * de chamadas em cada ponto, as falhas se repetem entre execuções.
+ */
+public class FaultInjector implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FaultInjector.class);
+
+    private final MeterRegistry registry;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, FaultSpec> configured;
+    private final Map<String, FaultPoint> points = new ConcurrentHashMap<>();
+
+    private volatile boolean enabled;
+    private volatile long seed;
+
+    public FaultInjector(FaultProperties properties, MeterRegistry registry) {
+        this.registry = registry;
+        this.configured = properties.points();
+        this.enabled = properties.enabled();
+        this.seed = properties.seed() != null ? properties.seed() : ThreadLocalRandom.current().nextLong();
+        // Só agenda o fim das esperas; as falhas são entregues sem ocupar outra thread
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("fault-delay-");
+        threadFactory.setDaemon(true);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        configured.keySet().forEach(this::point);
+        if (enabled && !configured.isEmpty()) {
+            logger.info("Fault injection enabled: seed={} points={}", seed, configured);
+        }
+    }
+
+    /**
+     * Injetor sem falhas, para benchmarks e testes que montam os serviços à mão.
+     */
+    public static FaultInjector disabled() {
+        return new FaultInjector(new FaultProperties(false, 0L, Map.of()), new SimpleMeterRegistry());
+    }
+
+    public FaultPoint point(String name) {
+        return points.computeIfAbsent(name, this::create);
+    }
+
+    public Collection<FaultPoint> points() {
+        return points.values();
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Troca a semente e recomeça todos os pontos, saudáveis, a partir dela.
+     */
+    public synchronized void reseed(long seed) {
+        this.seed = seed;
+        points.values().forEach(point -> point.reset(seed));
+    }
+
+    public void configure(String name, FaultSpec spec) {
+        point(name).configure(spec);
+    }
+
+    public void reset(String name) {
+        point(name).reset(seed);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private FaultPoint create(String name) {
+        Counter injected = Counter.builder("faults.injected")
+                .description("Calls failed by fault injection")
+                .tag("point", name)
+                .register(registry);
+        FaultPoint point = new FaultPoint(name, configured.getOrDefault(name, FaultSpec.NONE), seed, this,
+                scheduler, injected);
+        Gauge.builder("faults.failing", point, p -> p.failing() ? 1 : 0)
+                .description("Whether the fault point is in its failure state")
+                .tag("point", name)
+                .register(registry);
+        return point;
+    }
+}
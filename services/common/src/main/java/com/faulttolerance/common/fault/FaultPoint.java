@@ -0,0 +1,165 @@
+package com.faulttolerance.common.fault;
+
+import io.micrometer.core.instrument.Counter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Ponto de injeção de falhas de um serviço, configurado por um {@link FaultSpec}.
+ * <p>
+ * O sorteio é determinístico: a n-ésima chamada do ponto usa o n-ésimo valor de uma sequência
+ * SplitMix64 derivada da semente global e do nome do ponto. O estado de falha é um prazo em um
+ * {@link AtomicLong}, alterado apenas por CAS, e a espera antes da falha é agendada, sem bloquear
+ * quem chamou.
+ */
+public final class FaultPoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(FaultPoint.class);
+    private static final long HEALTHY = Long.MIN_VALUE;
+    private static final long FOREVER = Long.MAX_VALUE;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final String name;
+    private final FaultInjector injector;
+    private final ScheduledExecutorService scheduler;
+    private final Counter injected;
+    private final AtomicLong sequence = new AtomicLong();
+    // Prazo do estado de falha em System.nanoTime(), HEALTHY ou FOREVER
+    private final AtomicLong failingUntil = new AtomicLong(HEALTHY);
+
+    private volatile FaultSpec spec;
+    private volatile long seed;
+
+    FaultPoint(String name, FaultSpec spec, long seed, FaultInjector injector, ScheduledExecutorService scheduler,
+               Counter injected) {
+        this.name = name;
+        this.spec = spec;
+        this.seed = mix(seed ^ name.hashCode());
+        this.injector = injector;
+        this.scheduler = scheduler;
+        this.injected = injected;
+    }
+
+    /**
+     * Executa {@code action} se a chamada não falhar; caso contrário devolve a falha, após o atraso configurado.
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> action) {
+        InjectedFaultException fault = draw();
+        if (fault != null) {
+            return fail(fault);
+        }
+        try {
+            return CompletableFuture.completedFuture(action.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Como {@link #supply}, para ações que já são assíncronas.
+     */
+    public <T> CompletableFuture<T> compose(Supplier<CompletableFuture<T>> action) {
+        InjectedFaultException fault = draw();
+        if (fault != null) {
+            return fail(fault);
+        }
+        try {
+            return action.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public FaultSpec spec() {
+        return spec;
+    }
+
+    public boolean failing() {
+        long until = failingUntil.get();
+        return until == FOREVER || (until != HEALTHY && System.nanoTime() - until < 0);
+    }
+
+    public long injected() {
+        return (long) injected.count();
+    }
+
+    void configure(FaultSpec spec) {
+        this.spec = spec;
+    }
+
+    /**
+     * Sai do estado de falha (inclusive de um crash) e recomeça a sequência de sorteios.
+     */
+    void reset(long seed) {
+        this.seed = mix(seed ^ name.hashCode());
+        sequence.set(0);
+        failingUntil.set(HEALTHY);
+    }
+
+    private InjectedFaultException draw() {
+        if (!injector.enabled()) {
+            return null;
+        }
+        FaultSpec current = spec;
+        long until = failingUntil.get();
+        if (until != HEALTHY) {
+            long now = System.nanoTime();
+            if (until == FOREVER || now - until < 0) {
+                return injected("in failure state");
+            }
+            // Estado expirado: volta a saudável; se outra thread já fez a transição, nada muda
+            if (failingUntil.compareAndSet(until, HEALTHY)) {
+                logger.info("Fault point '{}' recovered from failure state", name);
+            }
+        }
+        if (current.probability() == 0 || nextDouble() >= current.probability()) {
+            return null;
+        }
+        if (current.stateDurationMs() != 0) {
+            long deadline = current.stateDurationMs() == FaultSpec.PERMANENT
+                    ? FOREVER
+                    : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(current.stateDurationMs());
+            if (failingUntil.compareAndSet(HEALTHY, deadline)) {
+                logger.warn("Fault point '{}' entering failure state for {}", name,
+                        deadline == FOREVER ? "ever" : current.stateDurationMs() + "ms");
+            }
+        }
+        return injected("entering failure state");
+    }
+
+    private InjectedFaultException injected(String reason) {
+        injected.increment();
+        return new InjectedFaultException(name, "Injected fault at '" + name + "' (" + reason + ")");
+    }
+
+    private <T> CompletableFuture<T> fail(InjectedFaultException fault) {
+        long delayMs = spec.delayMs();
+        if (delayMs == 0) {
+            return CompletableFuture.failedFuture(fault);
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        scheduler.schedule(() -> future.completeExceptionally(fault), delayMs, TimeUnit.MILLISECONDS);
+        return future;
+    }
+
+    private double nextDouble() {
+        long z = mix(seed + sequence.incrementAndGet() * GOLDEN_GAMMA);
+        return (z >>> 11) * 0x1.0p-53;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
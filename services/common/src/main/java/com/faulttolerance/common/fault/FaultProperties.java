@@ -0,0 +1,16 @@
+package com.faulttolerance.common.fault;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * Falhas injetadas no serviço ({@code faults.*}); alteráveis depois por {@code /actuator/faults}.
+ */
+@ConfigurationProperties(prefix = "faults")
+public record FaultProperties(
+    @DefaultValue("true") boolean enabled,
+    Long seed,  // sem semente, uma é sorteada na partida e registrada no log
+    @DefaultValue Map<String, FaultSpec> points
+) {}
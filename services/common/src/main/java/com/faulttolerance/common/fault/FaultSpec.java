@@ -0,0 +1,26 @@
+package com.faulttolerance.common.fault;
+
+/**
+ * Comportamento de um ponto de falha ({@code faults.points.<nome>.*}).
+ * <p>
+ * A cada chamada, com {@code probability} a chamada falha e o ponto entra no estado de falha por
+ * {@code stateDurationMs}; enquanto o estado durar, todas as chamadas falham. Cada falha é respondida
+ * após {@code delayMs}, sem ocupar uma thread durante a espera.
+ */
+public record FaultSpec(
+    double probability,     // chance de uma chamada saudável falhar
+    long stateDurationMs,   // 0: só a chamada sorteada falha; -1: falha permanente (crash)
+    long delayMs            // espera antes de a falha ser entregue
+) {
+    public static final long PERMANENT = -1;
+    public static final FaultSpec NONE = new FaultSpec(0, 0, 0);
+
+    public FaultSpec {
+        if (probability < 0 || probability > 1) {
+            throw new IllegalArgumentException("probability must be between 0 and 1");
+        }
+        if (stateDurationMs < PERMANENT || delayMs < 0) {
+            throw new IllegalArgumentException("stateDurationMs must be >= -1 and delayMs >= 0");
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.faulttolerance.common.fault;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@code /actuator/faults}: consulta e altera a injeção de falhas em runtime.
+ * <pre>
+ * curl -X POST localhost:8080/actuator/faults -H 'Content-Type: application/json' -d '{"enabled":false}'
+ * curl -X POST localhost:8080/actuator/faults/sale -H 'Content-Type: application/json' -d '{"probability":0.5}'
+ * curl -X POST localhost:8080/actuator/faults/exchange -H 'Content-Type: application/json' -d '{"reset":true}'
+ * </pre>
+ */
+@Endpoint(id = "faults")
+public class FaultsEndpoint {
+
+    private final FaultInjector injector;
+
+    public FaultsEndpoint(FaultInjector injector) {
+        this.injector = injector;
+    }
+
+    @ReadOperation
+    public Map<String, Object> faults() {
+        Map<String, Object> points = new TreeMap<>();
+        injector.points().forEach(point -> points.put(point.name(), describe(point)));
+
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("enabled", injector.enabled());
+        state.put("seed", injector.seed());
+        state.put("points", points);
+        return state;
+    }
+
+    @ReadOperation
+    public Map<String, Object> point(@Selector String name) {
+        return describe(injector.point(name));
+    }
+
+    /**
+     * Liga ou desliga todas as falhas; uma nova semente recomeça todos os pontos.
+     */
+    @WriteOperation
+    public Map<String, Object> configure(@Nullable Boolean enabled, @Nullable Long seed) {
+        if (enabled != null) {
+            injector.setEnabled(enabled);
+        }
+        if (seed != null) {
+            injector.reseed(seed);
+        }
+        return faults();
+    }
+
+    /**
+     * Altera um ponto; campos ausentes mantêm o valor atual e {@code reset} tira o ponto do estado de falha.
+     */
+    @WriteOperation
+    public Map<String, Object> configurePoint(@Selector String name, @Nullable Double probability,
+                                              @Nullable Long stateDurationMs, @Nullable Long delayMs,
+                                              @Nullable Boolean reset) {
+        FaultSpec current = injector.point(name).spec();
+        injector.configure(name, new FaultSpec(
+                probability != null ? probability : current.probability(),
+                stateDurationMs != null ? stateDurationMs : current.stateDurationMs(),
+                delayMs != null ? delayMs : current.delayMs()));
+        if (Boolean.TRUE.equals(reset)) {
+            injector.reset(name);
+        }
+        return point(name);
+    }
+
+    private static Map<String, Object> describe(FaultPoint point) {
+        FaultSpec spec = point.spec();
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("probability", spec.probability());
+        state.put("stateDurationMs", spec.stateDurationMs());
+        state.put("delayMs", spec.delayMs());
+        state.put("failing", point.failing());
+        state.put("injected", point.injected());
+        return state;
+    }
+}
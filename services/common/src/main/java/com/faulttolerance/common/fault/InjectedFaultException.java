@@ -0,0 +1,18 @@
+package com.faulttolerance.common.fault;
+
+/**
+ * Falha produzida por um {@link FaultPoint}. Sem stack trace: ela é esperada e pode ser frequente.
+ */
+public class InjectedFaultException extends RuntimeException {
+
+    private final String point;
+
+    public InjectedFaultException(String point, String message) {
+        super(message, null, false, false);
+        this.point = point;
+    }
+
+    public String point() {
+        return point;
+    }
+}
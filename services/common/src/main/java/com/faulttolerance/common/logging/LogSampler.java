@@ -0,0 +1,101 @@
+package com.faulttolerance.common.logging;
+
+import org.slf4j.Logger;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Amostragem por logger das mensagens do caminho crítico.
+ * <p>
+ * No modo {@link LoggingMode#SAMPLED} cada logger emite no máximo {@code ratePerSecond} mensagens
+ * amostradas por segundo; o excedente é descartado antes de a mensagem e os argumentos serem montados,
+ * sem alocação. No modo {@link LoggingMode#FULL} todas passam.
+ * <pre>{@code
+ * if (sampler.sample()) {
+ *     logger.info("Bonus processed: user={}, bonus={}", userId, bonus);
+ * }
+ * }</pre>
+ */
+public final class LogSampler {
+
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final Map<String, LogSampler> SAMPLERS = new ConcurrentHashMap<>();
+
+    private static volatile LoggingMode mode = LoggingMode.SAMPLED;
+    private static volatile int ratePerSecond = 10;
+
+    private final String name;
+    // Segundo corrente nos bits altos, mensagens emitidas nele nos COUNT_BITS baixos
+    private final AtomicLong window = new AtomicLong();
+    private final LongAdder sampledOut = new LongAdder();
+
+    private LogSampler(String name) {
+        this.name = name;
+    }
+
+    public static LogSampler of(Logger logger) {
+        return SAMPLERS.computeIfAbsent(logger.getName(), LogSampler::new);
+    }
+
+    public static void configure(LoggingMode mode, int ratePerSecond) {
+        if (ratePerSecond < 0 || ratePerSecond > COUNT_MASK) {
+            throw new IllegalArgumentException("ratePerSecond must be between 0 and " + COUNT_MASK);
+        }
+        LogSampler.ratePerSecond = ratePerSecond;
+        LogSampler.mode = mode;
+    }
+
+    public static LoggingMode mode() {
+        return mode;
+    }
+
+    public static int ratePerSecond() {
+        return ratePerSecond;
+    }
+
+    public static Collection<LogSampler> all() {
+        return SAMPLERS.values();
+    }
+
+    /**
+     * @return {@code true} se a mensagem deve ser registrada
+     */
+    public boolean sample() {
+        if (mode == LoggingMode.FULL) {
+            return true;
+        }
+        long second = System.currentTimeMillis() / 1000;
+        int limit = ratePerSecond;
+        while (true) {
+            long state = window.get();
+            long next;
+            if (state >>> COUNT_BITS != second) {
+                next = second << COUNT_BITS | 1;
+            } else if ((state & COUNT_MASK) < limit) {
+                next = state + 1;
+            } else {
+                sampledOut.increment();
+                return false;
+            }
+            if (window.compareAndSet(state, next)) {
+                return true;
+            }
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Mensagens descartadas pela amostragem desde o início.
+     */
+    public long sampledOut() {
+        return sampledOut.sum();
+    }
+}
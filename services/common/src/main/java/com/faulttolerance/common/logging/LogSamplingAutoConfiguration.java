@@ -0,0 +1,60 @@
+package com.faulttolerance.common.logging;
+
+import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.context.annotation.Bean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registra o endpoint {@code loggingmode} e as métricas da amostragem e do appender assíncrono
+ * em todo serviço que depende do módulo {@code common}.
+ */
+@AutoConfiguration
+@EnableConfigurationProperties(LogSamplingProperties.class)
+public class LogSamplingAutoConfiguration {
+
+    @Bean
+    public LoggingModeEndpoint loggingModeEndpoint(LoggingSystem loggingSystem, LogSamplingProperties properties) {
+        return new LoggingModeEndpoint(loggingSystem, properties);
+    }
+
+    @Bean
+    public MeterBinder logSamplingMetrics() {
+        return registry -> {
+            FunctionCounter.builder("logging.sampled.out", LogSampler.class,
+                            ignored -> LogSampler.all().stream().mapToLong(LogSampler::sampledOut).sum())
+                    .description("Hot-path log messages skipped by per-logger sampling")
+                    .register(registry);
+            for (NonBlockingAsyncAppender appender : asyncAppenders()) {
+                FunctionCounter.builder("logging.async.dropped", appender, NonBlockingAsyncAppender::droppedEvents)
+                        .description("Log events dropped because the async appender queue was full")
+                        .tag("appender", appender.getName())
+                        .register(registry);
+                Gauge.builder("logging.async.queue.remaining", appender, NonBlockingAsyncAppender::getRemainingCapacity)
+                        .description("Free slots in the async appender queue")
+                        .tag("appender", appender.getName())
+                        .register(registry);
+            }
+        };
+    }
+
+    private static List<NonBlockingAsyncAppender> asyncAppenders() {
+        List<NonBlockingAsyncAppender> appenders = new ArrayList<>();
+        if (LoggerFactory.getILoggerFactory() instanceof LoggerContext context) {
+            context.getLoggerList().forEach(logger -> logger.iteratorForAppenders().forEachRemaining(appender -> {
+                if (appender instanceof NonBlockingAsyncAppender async) {
+                    appenders.add(async);
+                }
+            }));
+        }
+        return appenders;
+    }
+}
@@ -0,0 +1,16 @@
+package com.faulttolerance.common.logging;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Modo de log inicial ({@code logging.sampling.*}); alterável depois por {@code /actuator/loggingmode}.
+ */
+@ConfigurationProperties(prefix = "logging.sampling")
+public record LogSamplingProperties(
+    @DefaultValue("sampled") LoggingMode mode,
+    @DefaultValue("10") int ratePerSecond,  // mensagens amostradas por logger por segundo
+    @DefaultValue List<String> detailLoggers  // loggers colocados em DEBUG no modo FULL
+) {}
@@ -0,0 +1,11 @@
+package com.faulttolerance.common.logging;
+
+/**
+ * Modo de log dos caminhos críticos, alternável em runtime por {@code /actuator/loggingmode}.
+ */
+public enum LoggingMode {
+    /** Mensagens do caminho crítico limitadas por logger; loggers de detalhe no nível configurado */
+    SAMPLED,
+    /** Todas as mensagens, com os loggers de detalhe em DEBUG; para investigar incidentes */
+    FULL
+}
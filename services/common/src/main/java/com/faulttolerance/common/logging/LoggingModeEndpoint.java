@@ -0,0 +1,71 @@
+package com.faulttolerance.common.logging;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggerConfiguration;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.lang.Nullable;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@code /actuator/loggingmode}: consulta e troca o modo de log em runtime.
+ * <pre>
+ * curl -X POST localhost:8080/actuator/loggingmode -H 'Content-Type: application/json' -d '{"mode":"FULL"}'
+ * </pre>
+ */
+@Endpoint(id = "loggingmode")
+public class LoggingModeEndpoint {
+
+    private final LoggingSystem loggingSystem;
+    private final List<String> detailLoggers;
+    // Níveis configurados dos loggers de detalhe antes de entrar no modo FULL
+    private final Map<String, LogLevel> savedLevels = new HashMap<>();
+
+    public LoggingModeEndpoint(LoggingSystem loggingSystem, LogSamplingProperties properties) {
+        this.loggingSystem = loggingSystem;
+        this.detailLoggers = properties.detailLoggers();
+        apply(properties.mode(), properties.ratePerSecond());
+    }
+
+    @ReadOperation
+    public Map<String, Object> mode() {
+        Map<String, Long> sampledOut = new TreeMap<>();
+        LogSampler.all().forEach(sampler -> sampledOut.put(sampler.name(), sampler.sampledOut()));
+
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("mode", LogSampler.mode());
+        state.put("ratePerSecond", LogSampler.ratePerSecond());
+        state.put("detailLoggers", detailLoggers);
+        state.put("sampledOut", sampledOut);
+        return state;
+    }
+
+    @WriteOperation
+    public Map<String, Object> configure(@Nullable LoggingMode mode, @Nullable Integer ratePerSecond) {
+        apply(mode != null ? mode : LogSampler.mode(),
+                ratePerSecond != null ? ratePerSecond : LogSampler.ratePerSecond());
+        return mode();
+    }
+
+    private synchronized void apply(LoggingMode mode, int ratePerSecond) {
+        LoggingMode previous = LogSampler.mode();
+        LogSampler.configure(mode, ratePerSecond);
+        if (mode == LoggingMode.FULL && previous != LoggingMode.FULL) {
+            for (String logger : detailLoggers) {
+                LoggerConfiguration configuration = loggingSystem.getLoggerConfiguration(logger);
+                savedLevels.put(logger, configuration != null ? configuration.getConfiguredLevel() : null);
+                loggingSystem.setLogLevel(logger, LogLevel.DEBUG);
+            }
+        } else if (mode == LoggingMode.SAMPLED && previous == LoggingMode.FULL) {
+            savedLevels.forEach(loggingSystem::setLogLevel);
+            savedLevels.clear();
+        }
+    }
+}
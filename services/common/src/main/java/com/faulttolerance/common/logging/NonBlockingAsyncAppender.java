@@ -0,0 +1,33 @@
+package com.faulttolerance.common.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link AsyncAppender} que nunca bloqueia a thread que registra o log: com a fila abaixo de
+ * {@code discardingThreshold} eventos TRACE a INFO são descartados, e com a fila cheia qualquer evento.
+ * Os descartes são contados em {@code logging.async.dropped}.
+ */
+public class NonBlockingAsyncAppender extends AsyncAppender {
+
+    private final LongAdder dropped = new LongAdder();
+
+    public NonBlockingAsyncAppender() {
+        setNeverBlock(true);
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        int remaining = getRemainingCapacity();
+        if (remaining == 0 || (remaining < getDiscardingThreshold() && isDiscardable(event))) {
+            dropped.increment();
+        }
+        super.append(event);
+    }
+
+    public long droppedEvents() {
+        return dropped.sum();
+    }
+}
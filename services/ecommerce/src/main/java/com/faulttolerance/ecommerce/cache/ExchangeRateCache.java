@@ -0,0 +1,166 @@
+package com.faulttolerance.ecommerce.cache;
+
+import com.faulttolerance.common.fault.FaultInjector;
+import com.faulttolerance.ecommerce.client.DownstreamClient;
+import com.faulttolerance.ecommerce.resilience.DownstreamResilience;
+import com.faulttolerance.ecommerce.resilience.RequestHedger;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.OptionalDouble;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Cache da taxa de câmbio (Request 2), fora do caminho crítico do /buy.
+ * <p>
+ * A taxa é renovada em background {@code refreshAheadMs} antes de completar o TTL. Se o exchange
+ * estiver fora, a última taxa continua sendo servida (stale-while-revalidate) até atingir
+ * {@code maxStalenessMs}; a partir daí {@link #getRate()} falha com {@link StaleExchangeRateException}.
+ * Até a primeira consulta bem-sucedida não há taxa conhecida, e {@link #lastKnownRate()} fica vazio.
+ * <p>
+ * Hits não passam pela resiliência: só a chamada ao exchange é protegida. A renovação em background
+ * usa o circuit breaker, time limiter e bulkhead {@code exchangeRate}, como uma compra com {@code ft=true},
+ * para que o breaker acompanhe a saúde do exchange mesmo com todas as compras atendidas pelo cache.
+ */
+@Component
+public class ExchangeRateCache {
+    private static final Logger logger = LoggerFactory.getLogger(ExchangeRateCache.class);
+    private static final String KEY = "rate";
+
+    private final DownstreamClient downstreamClient;
+    private final RequestHedger hedger;
+    private final DownstreamResilience resilience;
+    private final FaultInjector faultInjector;
+    private final AsyncLoadingCache<String, RateSnapshot> cache;
+    // Null até a primeira taxa válida
+    private final AtomicReference<RateSnapshot> lastKnown = new AtomicReference<>();
+    private final long maxStalenessMillis;
+    private final Counter refreshFailures;
+    private final Counter staleServed;
+
+    public ExchangeRateCache(DownstreamClient downstreamClient,
+                             RequestHedger hedger,
+                             DownstreamResilience resilience,
+                             FaultInjector faultInjector,
+                             MeterRegistry registry,
+                             @Qualifier("backgroundExecutor") ScheduledExecutorService backgroundExecutor,
+                             @Value("${exchange.cache.ttl-ms:5000}") long ttlMillis,
+                             @Value("${exchange.cache.refresh-ahead-ms:1000}") long refreshAheadMillis,
+                             @Value("${exchange.cache.max-staleness-ms:60000}") long maxStalenessMillis) {
+        this.downstreamClient = downstreamClient;
+        this.hedger = hedger;
+        this.resilience = resilience;
+        this.faultInjector = faultInjector;
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.cache = Caffeine.newBuilder()
+                .refreshAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .buildAsync((key, executor) -> fetch(this::guarded));
+
+        CaffeineCacheMetrics.monitor(registry, cache, "exchangeRate");
+        this.refreshFailures = Counter.builder("exchange.rate.refresh.failures")
+                .description("Failed attempts to refresh the cached exchange rate")
+                .register(registry);
+        this.staleServed = Counter.builder("exchange.rate.stale")
+                .description("Purchases that used an exchange rate older than the maximum staleness")
+                .register(registry);
+        Gauge.builder("exchange.rate.age", this, c -> c.ageMillis() / 1000.0)
+                .description("Age of the cached exchange rate")
+                .baseUnit("seconds")
+                .register(registry);
+
+        long refreshPeriod = Math.max(1L, ttlMillis - refreshAheadMillis);
+        backgroundExecutor.scheduleWithFixedDelay(this::refresh, 0L, refreshPeriod, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Taxa em cache; só consulta o exchange quando ainda não há valor (primeira compra).
+     */
+    public CompletableFuture<Double> getRate() {
+        return cache.get(KEY).thenApply(this::fresh);
+    }
+
+    /**
+     * Como {@link #getRate()}, mas se ainda não há valor a chamada ao exchange é executada por
+     * {@code guard}, que a envolve com circuit breaker, time limiter e bulkhead.
+     */
+    public CompletableFuture<Double> getRate(
+            Function<Supplier<CompletableFuture<Double>>, CompletableFuture<Double>> guard) {
+        return cache.get(KEY, (key, executor) -> fetch(guard)).thenApply(this::fresh);
+    }
+
+    /**
+     * Última taxa válida conhecida, usada como fallback quando {@code ft=true}; vazia se o exchange
+     * ainda não respondeu nenhuma vez.
+     */
+    public OptionalDouble lastKnownRate() {
+        RateSnapshot snapshot = lastKnown.get();
+        if (snapshot == null) {
+            return OptionalDouble.empty();
+        }
+        long age = System.currentTimeMillis() - snapshot.fetchedAtMillis();
+        if (age > maxStalenessMillis) {
+            staleServed.increment();
+            logger.warn("Serving exchange rate beyond maximum staleness: rate={}, ageMs={}", snapshot.rate(), age);
+        }
+        return OptionalDouble.of(snapshot.rate());
+    }
+
+    private double ageMillis() {
+        RateSnapshot snapshot = lastKnown.get();
+        return snapshot == null ? Double.NaN : System.currentTimeMillis() - snapshot.fetchedAtMillis();
+    }
+
+    private void refresh() {
+        cache.synchronous().refresh(KEY);
+    }
+
+    private double fresh(RateSnapshot snapshot) {
+        long age = System.currentTimeMillis() - snapshot.fetchedAtMillis();
+        if (age > maxStalenessMillis) {
+            throw new StaleExchangeRateException(age);
+        }
+        return snapshot.rate();
+    }
+
+    private CompletableFuture<Double> guarded(Supplier<CompletableFuture<Double>> call) {
+        return resilience.call(DownstreamResilience.EXCHANGE_RATE,
+                () -> faultInjector.point(DownstreamResilience.EXCHANGE_RATE).compose(call));
+    }
+
+    private CompletableFuture<RateSnapshot> fetch(
+            Function<Supplier<CompletableFuture<Double>>, CompletableFuture<Double>> guard) {
+        return guard.apply(() -> hedger.call(DownstreamResilience.EXCHANGE_RATE, downstreamClient::getExchangeRate))
+                .thenApply(rate -> {
+                    if (rate == null || rate <= 0) {
+                        throw new IllegalStateException("Invalid exchange rate");
+                    }
+                    RateSnapshot snapshot = new RateSnapshot(rate, System.currentTimeMillis());
+                    lastKnown.set(snapshot);
+                    return snapshot;
+                })
+                .whenComplete((snapshot, e) -> {
+                    if (e != null) {
+                        refreshFailures.increment();
+                        logger.debug("Exchange rate refresh failed: {}", e.getMessage());
+                    }
+                });
+    }
+
+    private record RateSnapshot(double rate, long fetchedAtMillis) {}
+}
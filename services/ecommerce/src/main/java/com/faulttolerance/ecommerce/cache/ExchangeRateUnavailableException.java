@@ -0,0 +1,8 @@
+package com.faulttolerance.ecommerce.cache;
+
+public class ExchangeRateUnavailableException extends RuntimeException {
+
+    public ExchangeRateUnavailableException(Throwable cause) {
+        super("No exchange rate has been fetched yet", cause);
+    }
+}
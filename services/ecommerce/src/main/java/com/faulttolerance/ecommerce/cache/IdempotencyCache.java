@@ -0,0 +1,85 @@
+package com.faulttolerance.ecommerce.cache;
+
+import com.faulttolerance.ecommerce.model.PurchaseRequest;
+import com.faulttolerance.ecommerce.model.PurchaseResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Compras por {@code Idempotency-Key}, para que retentativas do cliente não repitam a venda e o bônus.
+ * <p>
+ * Duplicatas simultâneas recebem o resultado da compra em andamento, e compras concluídas são
+ * reenviadas até expirar {@code ttlMs}. Compras que falharam são removidas, então a retentativa
+ * executa de novo. Reusar a chave com outra compra falha com {@link IdempotencyKeyReusedException}.
+ */
+@Component
+public class IdempotencyCache {
+    private final Cache<String, Execution> cache;
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter collapsed;
+
+    public IdempotencyCache(MeterRegistry registry,
+                            @Value("${idempotency.maximum-size:100000}") long maximumSize,
+                            @Value("${idempotency.ttl-ms:600000}") long ttlMillis) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "idempotency");
+        this.executed = outcome(registry, "executed");
+        this.replayed = outcome(registry, "replayed");
+        this.collapsed = outcome(registry, "collapsed");
+    }
+
+    public CompletableFuture<PurchaseResponse> execute(String key, PurchaseRequest request,
+                                                       Supplier<CompletableFuture<PurchaseResponse>> purchase) {
+        Execution created = new Execution(request, new CompletableFuture<>());
+        Execution existing = cache.asMap().putIfAbsent(key, created);
+        if (existing == null) {
+            executed.increment();
+            start(purchase).whenComplete((response, e) -> {
+                if (e != null) {
+                    cache.asMap().remove(key, created);
+                    created.result().completeExceptionally(e);
+                } else {
+                    created.result().complete(response);
+                }
+            });
+            return created.result().copy();
+        }
+
+        if (!existing.request().equals(request)) {
+            throw new IdempotencyKeyReusedException(key);
+        }
+        (existing.result().isDone() ? replayed : collapsed).increment();
+        return existing.result().copy();
+    }
+
+    private static CompletableFuture<PurchaseResponse> start(Supplier<CompletableFuture<PurchaseResponse>> purchase) {
+        try {
+            return purchase.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static Counter outcome(MeterRegistry registry, String outcome) {
+        return Counter.builder("idempotency.requests")
+                .description("Purchases with an Idempotency-Key, by whether they ran, replayed a result or joined one in flight")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private record Execution(PurchaseRequest request, CompletableFuture<PurchaseResponse> result) {}
+}
@@ -0,0 +1,132 @@
+package com.faulttolerance.ecommerce.cache;
+
+import com.faulttolerance.ecommerce.client.DownstreamClient;
+import com.faulttolerance.ecommerce.model.ProductResponse;
+import com.faulttolerance.ecommerce.resilience.DownstreamResilience;
+import com.faulttolerance.ecommerce.resilience.RequestHedger;
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Cache do catálogo (Request 1). Misses simultâneos para o mesmo produto compartilham uma única
+ * chamada ao store, e falhas não são armazenadas, então o produto de fallback nunca fica em cache.
+ * Hits não passam pela resiliência: só a chamada ao store de um miss é protegida.
+ * Na inicialização o cache é aquecido pelo endpoint em lote {@code GET /products}.
+ */
+@Component
+public class ProductCache {
+    private static final Logger logger = LoggerFactory.getLogger(ProductCache.class);
+
+    private final DownstreamClient downstreamClient;
+    private final RequestHedger hedger;
+    private final AsyncLoadingCache<Long, ProductResponse> cache;
+    private final int warmupSize;
+    private final int warmupAttempts;
+
+    public ProductCache(DownstreamClient downstreamClient,
+                        RequestHedger hedger,
+                        MeterRegistry registry,
+                        @Value("${product.cache.maximum-size:10000}") long maximumSize,
+                        @Value("${product.cache.ttl-ms:600000}") long ttlMillis,
+                        @Value("${product.cache.warmup-size:1000}") int warmupSize,
+                        @Value("${product.cache.warmup-attempts:3}") int warmupAttempts) {
+        this.downstreamClient = downstreamClient;
+        this.hedger = hedger;
+        this.warmupSize = warmupSize;
+        this.warmupAttempts = warmupAttempts;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .buildAsync(new AsyncCacheLoader<Long, ProductResponse>() {
+                    @Override
+                    public CompletableFuture<ProductResponse> asyncLoad(Long productId, Executor executor) {
+                        return load(productId);
+                    }
+
+                    @Override
+                    public CompletableFuture<Map<Long, ProductResponse>> asyncLoadAll(Set<? extends Long> productIds,
+                                                                                       Executor executor) {
+                        return downstreamClient.getProducts(List.copyOf(productIds))
+                                .thenApply(products -> products.stream()
+                                        .collect(Collectors.toMap(ProductResponse::id, Function.identity())));
+                    }
+                });
+        CaffeineCacheMetrics.monitor(registry, cache, "products");
+    }
+
+    public CompletableFuture<ProductResponse> get(Long productId) {
+        return cache.get(productId);
+    }
+
+    /**
+     * Como {@link #get(Long)}, mas num miss a chamada ao store é executada por {@code guard}, que a envolve
+     * com circuit breaker, time limiter e bulkhead. Quem chega durante um miss já em andamento espera
+     * a chamada de quem o iniciou.
+     */
+    public CompletableFuture<ProductResponse> get(
+            Long productId,
+            Function<Supplier<CompletableFuture<ProductResponse>>, CompletableFuture<ProductResponse>> guard) {
+        return cache.get(productId, (id, executor) -> guard.apply(() -> load(id)));
+    }
+
+    /**
+     * Produtos em cache e, para os ausentes, uma única consulta em lote ao store.
+     * Produtos inexistentes não aparecem no resultado.
+     */
+    public CompletableFuture<Map<Long, ProductResponse>> getAll(Collection<Long> productIds) {
+        return cache.getAll(productIds);
+    }
+
+    public void invalidate(Long productId) {
+        cache.synchronous().invalidate(productId);
+        logger.info("Product cache entry invalidated: product={}", productId);
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+        logger.info("Product cache cleared");
+    }
+
+    private CompletableFuture<ProductResponse> load(Long productId) {
+        return hedger.call(DownstreamResilience.STORE_PRODUCT, () -> downstreamClient.getProduct(productId));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        warmUp(1);
+    }
+
+    private void warmUp(int attempt) {
+        downstreamClient.getProducts(warmupSize).whenComplete((products, e) -> {
+            if (e == null) {
+                products.forEach(product -> cache.put(product.id(), CompletableFuture.completedFuture(product)));
+                logger.info("Product cache warmed up: products={}", products.size());
+            } else if (attempt < warmupAttempts) {
+                warmUp(attempt + 1);
+            } else {
+                logger.warn("Product cache warm-up failed after {} attempts: {}", attempt, e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,8 @@
+package com.faulttolerance.ecommerce.cache;
+
+public class StaleExchangeRateException extends RuntimeException {
+
+    public StaleExchangeRateException(long ageMillis) {
+        super("Exchange rate is " + ageMillis + " ms old, beyond the maximum staleness");
+    }
+}
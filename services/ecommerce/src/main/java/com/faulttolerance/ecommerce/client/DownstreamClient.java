@@ -0,0 +1,34 @@
+package com.faulttolerance.ecommerce.client;
+
+import com.faulttolerance.ecommerce.model.BonusEntry;
+import com.faulttolerance.ecommerce.model.BonusResult;
+import com.faulttolerance.ecommerce.model.ProductResponse;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Chamadas aos serviços store, exchange e fidelity (Requests 1-4).
+ * A implementação é escolhida por {@code downstream.client.mode}: {@code blocking} (RestTemplate)
+ * ou {@code async} (HttpClient do JDK, sem uma thread bloqueada por requisição em andamento).
+ */
+public interface DownstreamClient {
+
+    CompletableFuture<ProductResponse> getProduct(Long productId);
+
+    CompletableFuture<List<ProductResponse>> getProducts(int limit);
+
+    /**
+     * Produtos pelos ids, em uma única chamada ({@code GET /products?ids=}, até 1000 ids).
+     * Ids inexistentes são omitidos da resposta.
+     */
+    CompletableFuture<List<ProductResponse>> getProducts(List<Long> productIds);
+
+    CompletableFuture<Double> getExchangeRate();
+
+    CompletableFuture<String> sell(Long productId);
+
+    CompletableFuture<Void> registerBonus(Long userId, int bonus);
+
+    CompletableFuture<List<BonusResult>> registerBonuses(List<BonusEntry> entries);
+}
@@ -0,0 +1,14 @@
+package com.faulttolerance.ecommerce.client;
+
+public class DownstreamException extends RuntimeException {
+    private final int statusCode;
+
+    public DownstreamException(String message, int statusCode) {
+        super(message + " (status " + statusCode + ")");
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
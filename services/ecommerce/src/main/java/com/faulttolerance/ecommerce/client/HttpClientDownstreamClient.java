@@ -0,0 +1,160 @@
+package com.faulttolerance.ecommerce.client;
+
+import com.faulttolerance.ecommerce.model.BonusEntry;
+import com.faulttolerance.ecommerce.model.BonusResult;
+import com.faulttolerance.ecommerce.model.ProductResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+
+@Component
+@ConditionalOnProperty(name = "downstream.client.mode", havingValue = "async")
+public class HttpClientDownstreamClient implements DownstreamClient {
+    private static final TypeReference<List<ProductResponse>> PRODUCTS = new TypeReference<>() {};
+    private static final TypeReference<List<BonusResult>> BONUS_RESULTS = new TypeReference<>() {};
+
+    @Value("${store.url}")
+    private String storeUrl;
+
+    @Value("${exchange.url}")
+    private String exchangeUrl;
+
+    @Value("${fidelity.url}")
+    private String fidelityUrl;
+
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final Duration readTimeout;
+
+    public HttpClientDownstreamClient(ObjectMapper objectMapper,
+                                      @Qualifier("purchaseExecutor") ExecutorService purchaseExecutor,
+                                      @Value("${downstream.client.connect-timeout-ms:500}") long connectTimeoutMillis,
+                                      @Value("${downstream.client.read-timeout-ms:1200}") long readTimeoutMillis) {
+        this.objectMapper = objectMapper;
+        this.readTimeout = Duration.ofMillis(readTimeoutMillis);
+        // Sem executor próprio o HttpClient cria um pool sem limite para completar as respostas
+        this.httpClient = HttpClient.newBuilder()
+                .executor(purchaseExecutor)
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .build();
+    }
+
+    @Override
+    public CompletableFuture<ProductResponse> getProduct(Long productId) {
+        return send(get(storeUrl + "/product/" + productId), "store")
+                .thenApply(body -> read(body, ProductResponse.class));
+    }
+
+    @Override
+    public CompletableFuture<List<ProductResponse>> getProducts(int limit) {
+        return send(get(storeUrl + "/products?limit=" + limit), "store")
+                .thenApply(body -> read(body, PRODUCTS));
+    }
+
+    @Override
+    public CompletableFuture<List<ProductResponse>> getProducts(List<Long> productIds) {
+        String ids = productIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        return send(get(storeUrl + "/products?ids=" + ids), "store")
+                .thenApply(body -> read(body, PRODUCTS));
+    }
+
+    @Override
+    public CompletableFuture<Double> getExchangeRate() {
+        return send(get(exchangeUrl + "/exchange"), "exchange")
+                .thenApply(body -> read(body, Double.class));
+    }
+
+    @Override
+    public CompletableFuture<String> sell(Long productId) {
+        return httpClient.sendAsync(post(storeUrl + "/sell?product=" + productId), HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    // 409 é a resposta do store para produto sem estoque
+                    if (response.statusCode() == HttpURLConnection.HTTP_CONFLICT) {
+                        throw new OutOfStockException(productId);
+                    }
+                    String body = body(response, "store");
+                    if (body.isEmpty()) {
+                        throw new DownstreamException("Invalid response from store service", 200);
+                    }
+                    return body;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Void> registerBonus(Long userId, int bonus) {
+        return send(post(fidelityUrl + "/bonus?user=" + userId + "&bonus=" + bonus), "fidelity")
+                .thenApply(body -> null);
+    }
+
+    @Override
+    public CompletableFuture<List<BonusResult>> registerBonuses(List<BonusEntry> entries) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(fidelityUrl + "/bonus/batch"))
+                .timeout(readTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(write(entries)))
+                .build();
+        return send(request, "fidelity").thenApply(body -> read(body, BONUS_RESULTS));
+    }
+
+    private HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(readTimeout).GET().build();
+    }
+
+    private HttpRequest post(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(readTimeout)
+                .POST(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    private CompletableFuture<String> send(HttpRequest request, String service) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> body(response, service));
+    }
+
+    private String body(HttpResponse<String> response, String service) {
+        if (response.statusCode() / 100 != 2) {
+            throw new DownstreamException("Request to " + service + " service failed", response.statusCode());
+        }
+        return response.body();
+    }
+
+    private <T> T read(String body, Class<T> type) {
+        try {
+            return objectMapper.readValue(body, type);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> T read(String body, TypeReference<T> type) {
+        try {
+            return objectMapper.readValue(body, type);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
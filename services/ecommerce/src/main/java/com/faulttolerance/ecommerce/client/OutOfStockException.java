@@ -0,0 +1,12 @@
+package com.faulttolerance.ecommerce.client;
+
+/**
+ * O store respondeu 409 à venda: o produto está sem estoque. Não é falha do downstream, então não
+ * conta no circuit breaker, não tem fallback e não vale retentar.
+ */
+public class OutOfStockException extends RuntimeException {
+
+    public OutOfStockException(Long productId) {
+        super("Product " + productId + " is out of stock");
+    }
+}
@@ -0,0 +1,119 @@
+package com.faulttolerance.ecommerce.client;
+
+import com.faulttolerance.ecommerce.model.BonusEntry;
+import com.faulttolerance.ecommerce.model.BonusResult;
+import com.faulttolerance.ecommerce.model.ProductResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+
+@Component
+@ConditionalOnProperty(name = "downstream.client.mode", havingValue = "blocking", matchIfMissing = true)
+public class RestTemplateDownstreamClient implements DownstreamClient {
+
+    @Value("${store.url}")
+    private String storeUrl;
+
+    @Value("${exchange.url}")
+    private String exchangeUrl;
+
+    @Value("${fidelity.url}")
+    private String fidelityUrl;
+
+    private final RestTemplate storeRestTemplate;
+    private final RestTemplate exchangeRestTemplate;
+    private final RestTemplate fidelityRestTemplate;
+    private final ExecutorService purchaseExecutor;
+    private final ExecutorService bonusExecutor;
+
+    public RestTemplateDownstreamClient(@Qualifier("storeRestTemplate") RestTemplate storeRestTemplate,
+                                        @Qualifier("exchangeRestTemplate") RestTemplate exchangeRestTemplate,
+                                        @Qualifier("fidelityRestTemplate") RestTemplate fidelityRestTemplate,
+                                        @Qualifier("purchaseExecutor") ExecutorService purchaseExecutor,
+                                        @Qualifier("bonusExecutor") ExecutorService bonusExecutor) {
+        this.storeRestTemplate = storeRestTemplate;
+        this.exchangeRestTemplate = exchangeRestTemplate;
+        this.fidelityRestTemplate = fidelityRestTemplate;
+        this.purchaseExecutor = purchaseExecutor;
+        this.bonusExecutor = bonusExecutor;
+    }
+
+    @Override
+    public CompletableFuture<ProductResponse> getProduct(Long productId) {
+        return CompletableFuture.supplyAsync(
+                () -> storeRestTemplate.getForObject(storeUrl + "/product/" + productId, ProductResponse.class),
+                purchaseExecutor);
+    }
+
+    @Override
+    public CompletableFuture<List<ProductResponse>> getProducts(int limit) {
+        return CompletableFuture.supplyAsync(() -> {
+            ProductResponse[] products = storeRestTemplate.getForObject(storeUrl + "/products?limit=" + limit,
+                    ProductResponse[].class);
+            return products == null ? List.<ProductResponse>of() : List.of(products);
+        }, purchaseExecutor);
+    }
+
+    @Override
+    public CompletableFuture<List<ProductResponse>> getProducts(List<Long> productIds) {
+        String ids = productIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        return CompletableFuture.supplyAsync(() -> {
+            ProductResponse[] products = storeRestTemplate.getForObject(storeUrl + "/products?ids=" + ids,
+                    ProductResponse[].class);
+            return products == null ? List.<ProductResponse>of() : List.of(products);
+        }, purchaseExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Double> getExchangeRate() {
+        return CompletableFuture.supplyAsync(
+                () -> exchangeRestTemplate.getForObject(exchangeUrl + "/exchange", Double.class),
+                purchaseExecutor);
+    }
+
+    @Override
+    public CompletableFuture<String> sell(Long productId) {
+        return CompletableFuture.supplyAsync(() -> {
+            ResponseEntity<String> response;
+            try {
+                response = storeRestTemplate.postForEntity(storeUrl + "/sell?product=" + productId, null, String.class);
+            } catch (HttpClientErrorException.Conflict e) {
+                throw new OutOfStockException(productId);
+            }
+            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
+                return response.getBody();
+            }
+            throw new DownstreamException("Invalid response from store service", response.getStatusCode().value());
+        }, purchaseExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Void> registerBonus(Long userId, int bonus) {
+        return CompletableFuture.runAsync(
+                () -> fidelityRestTemplate.postForEntity(fidelityUrl + "/bonus?user=" + userId + "&bonus=" + bonus,
+                        null, Void.class),
+                bonusExecutor);
+    }
+
+    @Override
+    public CompletableFuture<List<BonusResult>> registerBonuses(List<BonusEntry> entries) {
+        return CompletableFuture.supplyAsync(() -> {
+            BonusResult[] results = fidelityRestTemplate.postForObject(fidelityUrl + "/bonus/batch", entries,
+                    BonusResult[].class);
+            if (results == null) {
+                throw new DownstreamException("Invalid response from fidelity service", 200);
+            }
+            return List.of(results);
+        }, bonusExecutor);
+    }
+}
@@ -0,0 +1,84 @@
+package com.faulttolerance.ecommerce.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executores limitados: o pipeline de compra, o envio de bônus, o processamento em background e os
+ * timeouts do time limiter não compartilham threads, e trabalho excedente é rejeitado imediatamente em vez de enfileirado.
+ */
+@Configuration
+@EnableConfigurationProperties(ExecutorProperties.class)
+public class ExecutorConfig {
+
+    @Bean
+    public ExecutorService purchaseExecutor(ExecutorProperties properties, MeterRegistry registry) {
+        return boundedExecutor("purchase", properties.purchase(), registry);
+    }
+
+    @Bean
+    public ExecutorService bonusExecutor(ExecutorProperties properties, MeterRegistry registry) {
+        return boundedExecutor("bonus", properties.bonus(), registry);
+    }
+
+    @Bean
+    public ScheduledExecutorService backgroundExecutor(ExecutorProperties properties, MeterRegistry registry) {
+        return scheduledExecutor("background", properties.background(), registry);
+    }
+
+    /**
+     * Timeouts do time limiter em threads próprias: agendados no background, atrasariam sempre que a
+     * renovação da taxa, o outbox ou o hedging ocupassem as suas threads.
+     */
+    @Bean
+    public ScheduledExecutorService timeLimiterExecutor(ExecutorProperties properties, MeterRegistry registry) {
+        return scheduledExecutor("time-limiter", properties.timeLimiter(), registry);
+    }
+
+    private ScheduledThreadPoolExecutor scheduledExecutor(String name, ExecutorProperties.Pool pool,
+                                                          MeterRegistry registry) {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(
+                pool.coreSize(),
+                new CustomizableThreadFactory(name + "-"),
+                rejectionHandler(name, registry));
+        executor.setRemoveOnCancelPolicy(true);
+        new ExecutorServiceMetrics(executor, name, Tags.empty()).bindTo(registry);
+        return executor;
+    }
+
+    private ThreadPoolExecutor boundedExecutor(String name, ExecutorProperties.Pool pool, MeterRegistry registry) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                pool.coreSize(), pool.maxSize(), 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(pool.queueCapacity()),
+                new CustomizableThreadFactory(name + "-"),
+                rejectionHandler(name, registry));
+        new ExecutorServiceMetrics(executor, name, Tags.empty()).bindTo(registry);
+        return executor;
+    }
+
+    private RejectedExecutionHandler rejectionHandler(String name, MeterRegistry registry) {
+        Counter rejected = Counter.builder("executor.rejected")
+                .description("Tasks rejected because the executor was saturated")
+                .tag("name", name)
+                .register(registry);
+        return (task, executor) -> {
+            rejected.increment();
+            throw new RejectedExecutionException("Executor '" + name + "' is saturated");
+        };
+    }
+}
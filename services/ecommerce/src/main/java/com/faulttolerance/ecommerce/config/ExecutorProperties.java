@@ -0,0 +1,12 @@
+package com.faulttolerance.ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Dimensionamento dos executores do ecommerce ({@code executors.*} no application.yml).
+ */
+@ConfigurationProperties(prefix = "executors")
+public record ExecutorProperties(Pool purchase, Pool bonus, Pool background, Pool timeLimiter) {
+
+    public record Pool(int coreSize, int maxSize, int queueCapacity) {}
+}
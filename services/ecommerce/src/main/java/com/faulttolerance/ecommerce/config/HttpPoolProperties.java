@@ -0,0 +1,17 @@
+package com.faulttolerance.ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Pools de conexão HTTP de cada serviço downstream ({@code http-pools.*} no application.yml).
+ */
+@ConfigurationProperties(prefix = "http-pools")
+public record HttpPoolProperties(Pool store, Pool exchange, Pool fidelity) {
+
+    public record Pool(
+        int maxConnections,   // conexões simultâneas para o serviço
+        long keepAliveMs,     // tempo máximo de reuso de uma conexão ociosa
+        long idleEvictionMs,  // conexões ociosas por mais tempo que isso são fechadas
+        long acquireTimeoutMs // espera máxima por uma conexão livre antes de falhar
+    ) {}
+}
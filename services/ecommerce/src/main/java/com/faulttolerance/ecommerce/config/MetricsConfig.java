@@ -0,0 +1,19 @@
+package com.faulttolerance.ecommerce.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Habilita {@code @Timed} fora do tratamento de requisições do Spring MVC, como o {@code purchase.request}
+ * do {@code PurchaseController}; em retornos assíncronos o tempo vai até a conclusão do future.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
@@ -1,20 +1,78 @@
 package com.faulttolerance.ecommerce.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
-import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Um RestTemplate por serviço downstream, cada um com seu próprio pool de conexões keep-alive.
+ * Com o pool esgotado, a requisição falha após {@code acquireTimeoutMs} em vez de esperar a vez.
+ */
 @Configuration
+@EnableConfigurationProperties(HttpPoolProperties.class)
 public class RestTemplateConfig {
+    private static final Timeout CONNECT_TIMEOUT = Timeout.ofMilliseconds(500);
+    private static final Timeout READ_TIMEOUT = Timeout.ofMilliseconds(1200);
 
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
+    public RestTemplate storeRestTemplate(RestTemplateBuilder builder, HttpPoolProperties properties,
+                                          MeterRegistry registry) {
+        return pooledRestTemplate("store", properties.store(), builder, registry);
+    }
+
+    @Bean
+    public RestTemplate exchangeRestTemplate(RestTemplateBuilder builder, HttpPoolProperties properties,
+                                             MeterRegistry registry) {
+        return pooledRestTemplate("exchange", properties.exchange(), builder, registry);
+    }
+
+    @Bean
+    public RestTemplate fidelityRestTemplate(RestTemplateBuilder builder, HttpPoolProperties properties,
+                                             MeterRegistry registry) {
+        return pooledRestTemplate("fidelity", properties.fidelity(), builder, registry);
+    }
+
+    private RestTemplate pooledRestTemplate(String name, HttpPoolProperties.Pool pool,
+                                            RestTemplateBuilder builder, MeterRegistry registry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(pool.maxConnections())
+                .setMaxConnPerRoute(pool.maxConnections())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(CONNECT_TIMEOUT)
+                        .setSocketTimeout(READ_TIMEOUT)
+                        .setTimeToLive(TimeValue.ofMilliseconds(pool.keepAliveMs()))
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, name).bindTo(registry);
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(pool.acquireTimeoutMs()))
+                        .setResponseTimeout(READ_TIMEOUT)
+                        .build())
+                .setKeepAliveStrategy((response, context) -> TimeValue.ofMilliseconds(pool.keepAliveMs()))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(pool.idleEvictionMs(), TimeUnit.MILLISECONDS))
+                .build();
+
         return builder
-                .setConnectTimeout(Duration.ofMillis(500))
-                .setReadTimeout(Duration.ofMillis(1200))
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
                 .build();
     }
 }
@@ -0,0 +1,34 @@
+package com.faulttolerance.ecommerce.controller;
+
+import com.faulttolerance.ecommerce.cache.ProductCache;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@Tag(name = "Cache", description = "Cache invalidation API")
+public class CacheController {
+
+    private final ProductCache productCache;
+
+    public CacheController(ProductCache productCache) {
+        this.productCache = productCache;
+    }
+
+    @DeleteMapping("/cache/products/{id}")
+    @Operation(summary = "Invalidate a product", description = "Drops a cached product so the next purchase reloads its price")
+    public ResponseEntity<Void> invalidateProduct(@PathVariable Long id) {
+        productCache.invalidate(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/cache/products")
+    @Operation(summary = "Invalidate the product cache", description = "Drops every cached product")
+    public ResponseEntity<Void> invalidateProducts() {
+        productCache.invalidateAll();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,8 +1,16 @@
 package com.faulttolerance.ecommerce.controller;
 
+import com.faulttolerance.ecommerce.cache.ExchangeRateUnavailableException;
+import com.faulttolerance.ecommerce.cache.IdempotencyCache;
+import com.faulttolerance.ecommerce.cache.IdempotencyKeyReusedException;
+import com.faulttolerance.ecommerce.client.OutOfStockException;
+import com.faulttolerance.ecommerce.model.BatchPurchaseResult;
 import com.faulttolerance.ecommerce.model.PurchaseRequest;
 import com.faulttolerance.ecommerce.model.PurchaseResponse;
+import com.faulttolerance.ecommerce.resilience.AdaptiveConcurrencyLimiter;
 import com.faulttolerance.ecommerce.service.PurchaseService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.core.annotation.Timed;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -11,34 +19,165 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @Tag(name = "Purchase", description = "Purchase operations API")
 public class PurchaseController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
     private final PurchaseService purchaseService;
+    private final IdempotencyCache idempotencyCache;
+    private final ObjectMapper objectMapper;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    @Value("${purchase.batch.chunk-size:500}")
+    private int batchChunkSize;
 
-    public PurchaseController(PurchaseService purchaseService) {
+    public PurchaseController(PurchaseService purchaseService, IdempotencyCache idempotencyCache,
+                              ObjectMapper objectMapper, AdaptiveConcurrencyLimiter concurrencyLimiter) {
         this.purchaseService = purchaseService;
+        this.idempotencyCache = idempotencyCache;
+        this.objectMapper = objectMapper;
+        this.concurrencyLimiter = concurrencyLimiter;
     }
 
     @PostMapping("/buy")
     @Operation(summary = "Process a purchase", description = "Processes a purchase request and returns the result asynchronously")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Purchase processed successfully",
-                    content = @Content(schema = @Schema(implementation = PurchaseResponse.class)))
+                    content = @Content(schema = @Schema(implementation = PurchaseResponse.class))),
+            @ApiResponse(responseCode = "409", description = "Product out of stock at the store"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key already used with a different purchase"),
+            @ApiResponse(responseCode = "503", description = "Service saturated or over the concurrency limit, request rejected")
     })
     @Timed(value = "purchase.request", description = "Time taken to process purchase request")
     public CompletableFuture<ResponseEntity<PurchaseResponse>> purchase(
             @Parameter(description = "Purchase request details", required = true)
-            @RequestBody PurchaseRequest request) {
-        return purchaseService.processPurchase(request)
-                .thenApply(ResponseEntity::ok);
+            @RequestBody PurchaseRequest request,
+            @Parameter(description = "Client-generated key; retries with the same key return the original result")
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        // Reenvios e duplicatas em andamento são respondidos pelo cache sem passar pelo limite
+        CompletableFuture<PurchaseResponse> response = idempotencyKey == null
+                ? limited(request)
+                : idempotencyCache.execute(idempotencyKey, request, () -> limited(request));
+        return response.thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Executa a compra dentro do limite adaptativo; acima dele falha na hora com
+     * {@link RejectedExecutionException}, antes de ocupar executor ou conexões. Só compras concluídas
+     * normalmente viram amostra de latência.
+     */
+    private CompletableFuture<PurchaseResponse> limited(PurchaseRequest request) {
+        AdaptiveConcurrencyLimiter.Permit permit = concurrencyLimiter.tryAcquire(request.ft());
+        if (permit == null) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Concurrency limit reached"));
+        }
+        CompletableFuture<PurchaseResponse> response;
+        try {
+            response = purchaseService.processPurchase(request);
+        } catch (RuntimeException e) {
+            permit.onIgnore();
+            throw e;
+        }
+        return response.whenComplete((result, e) -> {
+            if (e == null) {
+                permit.onSuccess();
+            } else {
+                permit.onIgnore();
+            }
+        });
+    }
+
+    @PostMapping(value = "/buy/batch", consumes = NDJSON, produces = NDJSON)
+    @Operation(summary = "Process a batch of purchases",
+            description = "Reads one purchase per NDJSON line and streams back one result per line as each completes")
+    @ApiResponse(responseCode = "200", description = "Results streamed as NDJSON, one per purchase",
+            content = @Content(mediaType = NDJSON, schema = @Schema(implementation = BatchPurchaseResult.class)))
+    public ResponseEntity<StreamingResponseBody> purchaseBatch(InputStream body) {
+        StreamingResponseBody response = out -> {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            Map<Long, PurchaseRequest> chunk = new LinkedHashMap<>();
+            long line = 0;
+            String text;
+            // Lido em blocos de batchChunkSize linhas: cada bloco é um lote no PurchaseService
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                try {
+                    chunk.put(line, objectMapper.readValue(text, PurchaseRequest.class));
+                } catch (JsonProcessingException e) {
+                    writeLine(out, BatchPurchaseResult.failed(line, "Invalid purchase: " + e.getOriginalMessage()));
+                    continue;
+                }
+                if (chunk.size() == batchChunkSize) {
+                    purchaseService.processBatch(chunk, result -> writeLine(out, result));
+                    chunk = new LinkedHashMap<>();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                purchaseService.processBatch(chunk, result -> writeLine(out, result));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(response);
+    }
+
+    private void writeLine(OutputStream out, BatchPurchaseResult result) {
+        // Resultados chegam de várias threads conforme cada compra termina
+        synchronized (out) {
+            try {
+                out.write(objectMapper.writeValueAsBytes(result));
+                out.write('\n');
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Void> handleRejected(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+
+    @ExceptionHandler(ExchangeRateUnavailableException.class)
+    public ResponseEntity<ProblemDetail> handleNoExchangeRate(ExchangeRateUnavailableException e) {
+        return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage())).build();
+    }
+
+    @ExceptionHandler(OutOfStockException.class)
+    public ResponseEntity<ProblemDetail> handleOutOfStock(OutOfStockException e) {
+        return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, e.getMessage())).build();
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<ProblemDetail> handleKeyReused(IdempotencyKeyReusedException e) {
+        return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage())).build();
     }
 }
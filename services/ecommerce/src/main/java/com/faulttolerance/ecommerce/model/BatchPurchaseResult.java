@@ -0,0 +1,15 @@
+package com.faulttolerance.ecommerce.model;
+
+public record BatchPurchaseResult(
+    long line,             // linha da compra no NDJSON recebido
+    String transactionId,  // id da transação, se a compra foi concluída
+    String error           // motivo da falha, se houver
+) {
+    public static BatchPurchaseResult completed(long line, String transactionId) {
+        return new BatchPurchaseResult(line, transactionId, null);
+    }
+
+    public static BatchPurchaseResult failed(long line, String error) {
+        return new BatchPurchaseResult(line, null, error);
+    }
+}
@@ -0,0 +1,6 @@
+package com.faulttolerance.ecommerce.model;
+
+public record BonusEntry(
+    Long user,     // id do usuário
+    Integer bonus  // bônus a creditar
+) {}
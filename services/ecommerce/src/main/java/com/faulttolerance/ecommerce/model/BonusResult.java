@@ -0,0 +1,8 @@
+package com.faulttolerance.ecommerce.model;
+
+public record BonusResult(
+    Long user,           // id do usuário
+    boolean applied,     // se o bônus foi creditado
+    Long totalBonus,     // saldo após o crédito
+    String error         // motivo da rejeição, se houver
+) {}
@@ -0,0 +1,7 @@
+package com.faulttolerance.ecommerce.model;
+
+public record ProductResponse(
+    Long id,       // id do produto
+    String name,   // nome do produto
+    Double value   // preço do produto
+) {}
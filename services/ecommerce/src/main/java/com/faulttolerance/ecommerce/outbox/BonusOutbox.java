@@ -0,0 +1,342 @@
+package com.faulttolerance.ecommerce.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Outbox durável dos bônus pendentes do fidelity.
+ * <p>
+ * Cada bônus é gravado em um log append-only de segmentos mapeados em memória. O fsync é feito em
+ * grupo por uma thread dedicada a cada {@code flushIntervalMs}, e quem grava recebe um future completado
+ * por esse flush, sem bloquear a thread. Confirmações também são registros do log; na inicialização o log é reaplicado para recuperar
+ * o backlog. Segmentos antigos são removidos quando todas as entradas foram confirmadas, ou após terem
+ * as entradas restantes copiadas para o segmento ativo. A remoção é sempre a partir do segmento mais
+ * antigo, para que uma confirmação nunca seja apagada antes da entrada que ela confirma.
+ */
+@Component
+@EnableConfigurationProperties(OutboxProperties.class)
+public class BonusOutbox {
+    private static final Logger logger = LoggerFactory.getLogger(BonusOutbox.class);
+    private static final CompletableFuture<Boolean> REJECTED = CompletableFuture.completedFuture(false);
+
+    private final OutboxProperties properties;
+    private final Path directory;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, Pending> pending = new LinkedHashMap<>();
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final AtomicLong pendingBonusPoints = new AtomicLong();
+    private final ScheduledExecutorService flusher =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("outbox-flusher-"));
+    private final Counter rejected;
+
+    private Segment active;
+    private long nextId = 1;
+    private long nextSegment = 1;
+    private long writtenSeq;
+    private long flushedSeq;
+    // Grupo das gravações ainda não sincronizadas; completado pelo fsync que as cobre
+    private CompletableFuture<Void> commit = new CompletableFuture<>();
+
+    public BonusOutbox(OutboxProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.directory = Paths.get(properties.directory());
+        recover();
+
+        this.rejected = Counter.builder("outbox.rejected")
+                .description("Bonuses rejected because the outbox is full")
+                .register(registry);
+        Gauge.builder("outbox.backlog.size", this, BonusOutbox::size)
+                .description("Bonuses waiting to be delivered to the fidelity service")
+                .register(registry);
+        Gauge.builder("outbox.backlog.age", this, outbox -> outbox.oldestAgeMillis() / 1000.0)
+                .description("Age of the oldest undelivered bonus")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("outbox.segments", this, BonusOutbox::segmentCount)
+                .description("Segment files currently on disk")
+                .register(registry);
+        Gauge.builder("fidelity.pending.bonus.points", pendingBonusPoints, AtomicLong::get)
+                .description("Bonus points not yet delivered to the fidelity service")
+                .register(registry);
+
+        flusher.scheduleWithFixedDelay(this::flush,
+                properties.flushIntervalMs(), properties.flushIntervalMs(), TimeUnit.MILLISECONDS);
+        flusher.scheduleWithFixedDelay(this::compact,
+                properties.compactionIntervalMs(), properties.compactionIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Grava o bônus sem esperar o fsync. O future completa com {@code true} na thread do flusher, quando o
+     * grupo em que o bônus entrou está em disco, ou já vem com {@code false} se o outbox atingiu
+     * {@code maxEntries}.
+     */
+    public CompletableFuture<Boolean> append(long userId, int bonus) {
+        lock.lock();
+        try {
+            if (pending.size() >= properties.maxEntries()) {
+                rejected.increment();
+                return REJECTED;
+            }
+            OutboxEntry entry = new OutboxEntry(nextId++, userId, bonus, System.currentTimeMillis());
+            write(Segment.APPEND, entry);
+            pending.put(entry.id(), new Pending(entry, active));
+            active.incrementLive();
+            pendingBonusPoints.addAndGet(bonus);
+            return commit.thenApply(ignored -> true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void acknowledge(long id) {
+        lock.lock();
+        try {
+            Pending removed = pending.remove(id);
+            if (removed == null) {
+                return;
+            }
+            write(Segment.ACK, new OutboxEntry(id, 0L, 0, 0L));
+            removed.segment.decrementLive();
+            pendingBonusPoints.addAndGet(-removed.entry.bonus());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Entradas mais antigas ainda não confirmadas, na ordem de gravação.
+     */
+    public List<OutboxEntry> peek(int max) {
+        lock.lock();
+        try {
+            List<OutboxEntry> entries = new ArrayList<>(Math.min(max, pending.size()));
+            Iterator<Pending> iterator = pending.values().iterator();
+            while (iterator.hasNext() && entries.size() < max) {
+                entries.add(iterator.next().entry);
+            }
+            return entries;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    private int segmentCount() {
+        lock.lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long oldestAgeMillis() {
+        lock.lock();
+        try {
+            Iterator<Pending> iterator = pending.values().iterator();
+            return iterator.hasNext() ? System.currentTimeMillis() - iterator.next().entry.createdAtMillis() : 0L;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flusher.shutdown();
+        CompletableFuture<Void> batch;
+        lock.lock();
+        try {
+            active.force();
+            batch = markFlushed();
+        } finally {
+            lock.unlock();
+        }
+        batch.complete(null);
+    }
+
+    private void recover() {
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(directory)) {
+                files = listing.filter(path -> path.getFileName().toString().startsWith("segment-"))
+                        .sorted()
+                        .toList();
+            }
+            for (Path file : files) {
+                Segment segment = Segment.open(directory, Segment.sequenceOf(file), properties.segmentBytes());
+                segment.replay(record -> apply(record, segment));
+                segments.addLast(segment);
+                nextSegment = segment.sequence() + 1;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to recover outbox from " + directory, e);
+        }
+
+        if (segments.isEmpty()) {
+            segments.addLast(Segment.open(directory, nextSegment++, properties.segmentBytes()));
+        }
+        active = segments.peekLast();
+        pending.values().forEach(p -> p.segment.incrementLive());
+        pending.values().forEach(p -> pendingBonusPoints.addAndGet(p.entry.bonus()));
+        logger.info("Outbox recovered: pending={}, segments={}", pending.size(), segments.size());
+    }
+
+    private void apply(Segment.Record record, Segment segment) {
+        nextId = Math.max(nextId, record.id() + 1);
+        if (record.type() == Segment.APPEND) {
+            Pending previous = pending.get(record.id());
+            if (previous != null) {
+                // Entrada copiada pela compactação: passa a pertencer ao segmento mais novo
+                previous.segment = segment;
+            } else {
+                pending.put(record.id(), new Pending(
+                        new OutboxEntry(record.id(), record.userId(), record.bonus(), record.createdAtMillis()),
+                        segment));
+            }
+        } else {
+            pending.remove(record.id());
+        }
+    }
+
+    private void write(byte type, OutboxEntry entry) {
+        if (!active.hasRoom()) {
+            active.force();
+            active = Segment.open(directory, nextSegment++, properties.segmentBytes());
+            segments.addLast(active);
+        }
+        active.write(type, entry.id(), entry.userId(), entry.bonus(), entry.createdAtMillis());
+        writtenSeq++;
+    }
+
+    private void flush() {
+        Segment target;
+        long seq;
+        CompletableFuture<Void> batch;
+        lock.lock();
+        try {
+            if (flushedSeq == writtenSeq) {
+                return;
+            }
+            target = active;
+            seq = writtenSeq;
+            batch = commit;
+            commit = new CompletableFuture<>();
+        } finally {
+            lock.unlock();
+        }
+
+        // Segmentos anteriores já foram sincronizados ao serem substituídos
+        try {
+            target.force();
+        } catch (RuntimeException e) {
+            batch.completeExceptionally(e);
+            throw e;
+        }
+
+        lock.lock();
+        try {
+            flushedSeq = Math.max(flushedSeq, seq);
+        } finally {
+            lock.unlock();
+        }
+        batch.complete(null);
+    }
+
+    /**
+     * Tudo o que foi gravado até aqui está em disco. Chamado sob {@code lock}; o grupo devolvido deve
+     * ser completado fora do lock.
+     */
+    private CompletableFuture<Void> markFlushed() {
+        flushedSeq = writtenSeq;
+        CompletableFuture<Void> batch = commit;
+        commit = new CompletableFuture<>();
+        return batch;
+    }
+
+    private void compact() {
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        lock.lock();
+        try {
+            while (segments.size() > 1) {
+                Segment oldest = segments.peekFirst();
+                if (oldest.liveEntries() > 0) {
+                    long liveBytes = (long) oldest.liveEntries() * Segment.RECORD_SIZE;
+                    if (liveBytes * 2 > properties.segmentBytes()) {
+                        break;
+                    }
+                    relocate(oldest);
+                    batches.add(markFlushed());
+                }
+                segments.pollFirst();
+                oldest.delete();
+                logger.debug("Outbox segment {} compacted", oldest.sequence());
+            }
+        } finally {
+            lock.unlock();
+        }
+        batches.forEach(batch -> batch.complete(null));
+    }
+
+    private void relocate(Segment segment) {
+        for (Pending p : pending.values()) {
+            if (p.segment == segment) {
+                write(Segment.APPEND, p.entry);
+                p.segment = active;
+                active.incrementLive();
+                segment.decrementLive();
+            }
+        }
+        // A cópia precisa estar em disco antes de o segmento original ser removido
+        active.force();
+    }
+
+    private static final class Pending {
+        private final OutboxEntry entry;
+        private Segment segment;
+
+        private Pending(OutboxEntry entry, Segment segment) {
+            this.entry = entry;
+            this.segment = segment;
+        }
+    }
+}
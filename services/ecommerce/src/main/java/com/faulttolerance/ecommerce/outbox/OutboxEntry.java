@@ -0,0 +1,3 @@
+package com.faulttolerance.ecommerce.outbox;
+
+public record OutboxEntry(long id, long userId, int bonus, long createdAtMillis) {}
@@ -0,0 +1,15 @@
+package com.faulttolerance.ecommerce.outbox;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuração do outbox de bônus ({@code outbox.*} no application.yml).
+ */
+@ConfigurationProperties(prefix = "outbox")
+public record OutboxProperties(
+    String directory,          // diretório dos segmentos
+    int segmentBytes,          // tamanho de cada segmento mapeado
+    int maxEntries,            // limite de bônus pendentes
+    long flushIntervalMs,      // janela do group commit
+    long compactionIntervalMs  // intervalo da compactação
+) {}
@@ -0,0 +1,122 @@
+package com.faulttolerance.ecommerce.outbox;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Segmento do log do outbox: arquivo de tamanho fixo mapeado em memória, com registros de
+ * tamanho fixo protegidos por CRC. Um byte de tipo zero marca o fim dos dados gravados.
+ */
+final class Segment {
+    static final byte APPEND = 1;
+    static final byte ACK = 2;
+    static final int RECORD_SIZE = 1 + 8 + 8 + 4 + 8 + 4;
+    private static final int PAYLOAD_SIZE = RECORD_SIZE - 4;
+
+    private final long sequence;
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final CRC32 crc = new CRC32();
+    private int liveEntries;
+
+    private Segment(long sequence, Path path, MappedByteBuffer buffer) {
+        this.sequence = sequence;
+        this.path = path;
+        this.buffer = buffer;
+    }
+
+    static Segment open(Path directory, long sequence, int segmentBytes) {
+        Path path = directory.resolve(String.format("segment-%020d.log", sequence));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = Math.max(channel.size(), segmentBytes);
+            return new Segment(sequence, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open outbox segment " + path, e);
+        }
+    }
+
+    static long sequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring("segment-".length(), name.length() - ".log".length()));
+    }
+
+    /**
+     * Lê os registros válidos desde o início e posiciona a escrita logo após o último deles;
+     * um registro incompleto (escrita interrompida) é descartado e será sobrescrito.
+     */
+    void replay(Consumer<Record> consumer) {
+        buffer.position(0);
+        while (buffer.remaining() >= RECORD_SIZE) {
+            int start = buffer.position();
+            byte type = buffer.get(start);
+            if (type != APPEND && type != ACK) {
+                break;
+            }
+            crc.reset();
+            crc.update(buffer.slice(start, PAYLOAD_SIZE));
+            if ((int) crc.getValue() != buffer.getInt(start + PAYLOAD_SIZE)) {
+                break;
+            }
+            consumer.accept(new Record(type, buffer.getLong(start + 1), buffer.getLong(start + 9),
+                    buffer.getInt(start + 17), buffer.getLong(start + 21)));
+            buffer.position(start + RECORD_SIZE);
+        }
+    }
+
+    boolean hasRoom() {
+        return buffer.remaining() >= RECORD_SIZE;
+    }
+
+    void write(byte type, long id, long userId, int bonus, long createdAtMillis) {
+        int start = buffer.position();
+        buffer.putLong(start + 1, id)
+                .putLong(start + 9, userId)
+                .putInt(start + 17, bonus)
+                .putLong(start + 21, createdAtMillis);
+        crc.reset();
+        crc.update(type);
+        crc.update(buffer.slice(start + 1, PAYLOAD_SIZE - 1));
+        buffer.putInt(start + PAYLOAD_SIZE, (int) crc.getValue());
+        // O tipo é gravado por último para que um registro parcial nunca pareça válido
+        buffer.put(start, type);
+        buffer.position(start + RECORD_SIZE);
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    void delete() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete outbox segment " + path, e);
+        }
+    }
+
+    long sequence() {
+        return sequence;
+    }
+
+    int liveEntries() {
+        return liveEntries;
+    }
+
+    void incrementLive() {
+        liveEntries++;
+    }
+
+    void decrementLive() {
+        liveEntries--;
+    }
+
+    record Record(byte type, long id, long userId, int bonus, long createdAtMillis) {}
+}
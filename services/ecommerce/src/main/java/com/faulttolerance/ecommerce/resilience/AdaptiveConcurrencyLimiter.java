@@ -0,0 +1,146 @@
+package com.faulttolerance.ecommerce.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limite adaptativo de compras simultâneas na entrada do /buy, com uma partição por valor de {@code ft}.
+ * <p>
+ * O limite segue o algoritmo gradient: a cada compra concluída normalmente, a latência medida é comparada com a
+ * média exponencial de longo prazo. Enquanto a latência recente fica dentro de {@code rttTolerance}
+ * vezes a de longo prazo o limite cresce {@code queueSize}; quando a latência sobe ele encolhe na mesma
+ * proporção (no máximo pela metade por amostra). Amostras com poucas compras em andamento não mudam o
+ * limite, porque a latência não diz nada sobre a capacidade. Compras que falharam ou foram rejeitadas
+ * liberam a vaga sem amostra: um 503 por executor saturado volta em microssegundos e faria o limite subir.
+ * <p>
+ * As partições são independentes porque as latências são diferentes: com {@code ft=true} os fallbacks
+ * respondem rápido mesmo com o downstream lento, e um limite compartilhado cresceria com essas amostras.
+ * Acima do limite a compra é recusada na hora, sem ocupar executor nem conexões.
+ */
+@Component
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class AdaptiveConcurrencyLimiter {
+    private static final Permit UNLIMITED = new Permit(null, 0, 0);
+    private static final int WARMUP_SAMPLES = 10;
+
+    private final ConcurrencyLimitProperties properties;
+    private final Partition withFt;
+    private final Partition withoutFt;
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.withFt = new Partition(true, registry);
+        this.withoutFt = new Partition(false, registry);
+    }
+
+    /**
+     * Reserva uma vaga para a compra; devolve null se a partição está no limite. A vaga deve ser liberada
+     * com {@link Permit#onSuccess()} ou {@link Permit#onIgnore()} quando a compra terminar.
+     */
+    public Permit tryAcquire(boolean ft) {
+        if (!properties.enabled()) {
+            return UNLIMITED;
+        }
+        return (ft ? withFt : withoutFt).tryAcquire();
+    }
+
+    public static final class Permit {
+        private final Partition partition;
+        private final long startNanos;
+        private final int inFlight;
+
+        private Permit(Partition partition, long startNanos, int inFlight) {
+            this.partition = partition;
+            this.startNanos = startNanos;
+            this.inFlight = inFlight;
+        }
+
+        /** Libera a vaga e usa a latência da compra, concluída normalmente, como amostra. */
+        public void onSuccess() {
+            if (partition != null) {
+                partition.release();
+                partition.onSample(Math.max(1, System.nanoTime() - startNanos), inFlight);
+            }
+        }
+
+        /** Libera a vaga sem amostra, para compras que falharam ou foram rejeitadas. */
+        public void onIgnore() {
+            if (partition != null) {
+                partition.release();
+            }
+        }
+    }
+
+    private final class Partition {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Counter rejected;
+        private volatile int limit;
+
+        // Protegidos pelo monitor da partição
+        private double estimatedLimit;
+        private double longRtt;
+        private long samples;
+
+        Partition(boolean ft, MeterRegistry registry) {
+            this.estimatedLimit = properties.initialLimit();
+            this.limit = properties.initialLimit();
+            String tag = Boolean.toString(ft);
+            Gauge.builder("purchase.concurrency.limit", this, p -> p.limit)
+                    .description("Current adaptive limit of concurrent purchases")
+                    .tag("ft", tag)
+                    .register(registry);
+            Gauge.builder("purchase.concurrency.inflight", inFlight, AtomicInteger::get)
+                    .description("Purchases in flight counted against the limit")
+                    .tag("ft", tag)
+                    .register(registry);
+            this.rejected = Counter.builder("purchase.concurrency.rejected")
+                    .description("Purchases rejected with 503 because the limit was reached")
+                    .tag("ft", tag)
+                    .register(registry);
+        }
+
+        Permit tryAcquire() {
+            while (true) {
+                int current = inFlight.get();
+                if (current >= limit) {
+                    rejected.increment();
+                    return null;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return new Permit(this, System.nanoTime(), current + 1);
+                }
+            }
+        }
+
+        void release() {
+            inFlight.decrementAndGet();
+        }
+
+        private synchronized void onSample(double rtt, int inFlightAtStart) {
+            samples++;
+            if (samples <= WARMUP_SAMPLES) {
+                longRtt += (rtt - longRtt) / samples;
+            } else {
+                longRtt += (rtt - longRtt) * 2.0 / (properties.longWindow() + 1);
+            }
+            // Depois de um pico, a média de longo prazo volta mais rápido para a latência atual
+            if (longRtt / rtt > 2) {
+                longRtt *= 0.95;
+            }
+            if (inFlightAtStart < estimatedLimit / 2) {
+                return;
+            }
+
+            double gradient = Math.max(0.5, Math.min(1.0, properties.rttTolerance() * longRtt / rtt));
+            double newLimit = estimatedLimit * gradient + properties.queueSize();
+            newLimit = estimatedLimit * (1 - properties.smoothing()) + newLimit * properties.smoothing();
+            estimatedLimit = Math.max(properties.minLimit(), Math.min(properties.maxLimit(), newLimit));
+            limit = (int) estimatedLimit;
+        }
+    }
+}
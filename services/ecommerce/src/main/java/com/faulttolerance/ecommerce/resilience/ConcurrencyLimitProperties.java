@@ -0,0 +1,18 @@
+package com.faulttolerance.ecommerce.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Limite adaptativo de compras simultâneas no /buy ({@code concurrency-limit.*} no application.yml).
+ */
+@ConfigurationProperties(prefix = "concurrency-limit")
+public record ConcurrencyLimitProperties(
+    boolean enabled,
+    int initialLimit,     // limite de cada partição antes das primeiras amostras
+    int minLimit,
+    int maxLimit,
+    int queueSize,        // folga somada ao limite a cada amostra, para que ele possa crescer
+    double smoothing,     // peso de cada nova estimativa no limite (0-1)
+    double rttTolerance,  // quanto a latência recente pode passar da de longo prazo antes de reduzir o limite
+    int longWindow        // amostras da média exponencial da latência de longo prazo
+) {}
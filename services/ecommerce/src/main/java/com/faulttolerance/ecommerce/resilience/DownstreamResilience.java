@@ -0,0 +1,61 @@
+package com.faulttolerance.ecommerce.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Aplica circuit breaker, time limiter e bulkhead do Resilience4j a uma chamada downstream.
+ * <p>
+ * A decoração é programática porque as anotações só funcionam em métodos públicos chamados através
+ * do proxy do Spring. As instâncias são as de {@code resilience4j.*} no application.yml, e as
+ * métricas ({@code resilience4j_circuitbreaker_state}, {@code resilience4j_circuitbreaker_calls},
+ * {@code resilience4j_bulkhead_available_concurrent_calls}) são publicadas pelo starter.
+ */
+@Component
+public class DownstreamResilience {
+    public static final String STORE_PRODUCT = "storeProduct";
+    public static final String EXCHANGE_RATE = "exchangeRate";
+    public static final String STORE_SALE = "storeSale";
+    public static final String FIDELITY_BONUS = "fidelityBonus";
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final TimeLimiterRegistry timeLimiterRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final ScheduledExecutorService scheduler;
+
+    public DownstreamResilience(CircuitBreakerRegistry circuitBreakerRegistry,
+                                TimeLimiterRegistry timeLimiterRegistry,
+                                BulkheadRegistry bulkheadRegistry,
+                                @Qualifier("timeLimiterExecutor") ScheduledExecutorService scheduler) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.timeLimiterRegistry = timeLimiterRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Executa {@code call} dentro do bulkhead, com o tempo limitado pelo time limiter e o resultado
+     * registrado no circuit breaker de mesmo nome. Com o breaker aberto ou o bulkhead cheio, a chamada
+     * nem é iniciada e o future falha imediatamente.
+     */
+    public <T> CompletableFuture<T> call(String name, Supplier<CompletableFuture<T>> call) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(name);
+        TimeLimiter timeLimiter = timeLimiterRegistry.timeLimiter(name);
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(name);
+
+        Supplier<CompletionStage<T>> limited = Bulkhead.decorateCompletionStage(bulkhead, call::get);
+        Supplier<CompletionStage<T>> timed = () -> timeLimiter.executeCompletionStage(scheduler, limited);
+        return circuitBreaker.executeCompletionStage(timed).toCompletableFuture();
+    }
+}
@@ -0,0 +1,16 @@
+package com.faulttolerance.ecommerce.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Requisições hedged das consultas idempotentes ({@code hedging.*} no application.yml).
+ */
+@ConfigurationProperties(prefix = "hedging")
+public record HedgingProperties(
+    boolean enabled,
+    double percentile,   // percentil da latência recente após o qual a segunda tentativa é disparada
+    double budgetRatio,  // fração máxima de tentativas extras em relação às chamadas originais
+    long minDelayMs,     // limites do atraso calculado; o máximo também vale enquanto não há amostras
+    long maxDelayMs,
+    int windowSize       // latências recentes consideradas no percentil
+) {}
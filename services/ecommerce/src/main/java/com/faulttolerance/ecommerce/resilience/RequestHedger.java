@@ -0,0 +1,159 @@
+package com.faulttolerance.ecommerce.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Hedging de chamadas idempotentes: se a primeira tentativa não responder dentro do percentil
+ * configurado da latência recente, uma segunda é disparada e vale a que terminar primeiro.
+ * <p>
+ * As tentativas extras são limitadas por um orçamento: cada chamada original rende
+ * {@code budgetRatio} de crédito, e cada hedge consome um crédito inteiro. Uma falha só é
+ * propagada quando todas as tentativas em andamento falharam.
+ */
+@Component
+@EnableConfigurationProperties(HedgingProperties.class)
+public class RequestHedger {
+    private static final long CREDIT = 1000L;
+    private static final long MAX_CREDITS = 10 * CREDIT;
+    private static final int RECOMPUTE_EVERY = 32;
+
+    private final HedgingProperties properties;
+    private final ScheduledExecutorService scheduler;
+    private final MeterRegistry registry;
+    private final Map<String, HedgeState> states = new ConcurrentHashMap<>();
+
+    public RequestHedger(HedgingProperties properties,
+                         @Qualifier("backgroundExecutor") ScheduledExecutorService scheduler,
+                         MeterRegistry registry) {
+        this.properties = properties;
+        this.scheduler = scheduler;
+        this.registry = registry;
+    }
+
+    public <T> CompletableFuture<T> call(String name, Supplier<CompletableFuture<T>> attempt) {
+        if (!properties.enabled()) {
+            return attempt.get();
+        }
+        HedgeState state = states.computeIfAbsent(name, HedgeState::new);
+        state.deposit();
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+        long start = System.nanoTime();
+
+        start(attempt).whenComplete((value, e) -> {
+            if (e == null) {
+                state.record(System.nanoTime() - start);
+                result.complete(value);
+            } else if (outstanding.decrementAndGet() == 0) {
+                result.completeExceptionally(e);
+            }
+        });
+
+        ScheduledFuture<?> timer = scheduler.schedule(() -> {
+            if (result.isDone() || !state.withdraw()) {
+                return;
+            }
+            outstanding.incrementAndGet();
+            state.sent.increment();
+            start(attempt).whenComplete((value, e) -> {
+                if (e == null) {
+                    if (result.complete(value)) {
+                        state.won.increment();
+                    }
+                } else if (outstanding.decrementAndGet() == 0) {
+                    result.completeExceptionally(e);
+                }
+            });
+        }, state.delayNanos, TimeUnit.NANOSECONDS);
+        result.whenComplete((value, e) -> timer.cancel(false));
+        return result;
+    }
+
+    private static <T> CompletableFuture<T> start(Supplier<CompletableFuture<T>> attempt) {
+        try {
+            return attempt.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private final class HedgeState {
+        private final long[] samples = new long[properties.windowSize()];
+        private final AtomicLong credits = new AtomicLong();
+        private final Counter sent;
+        private final Counter won;
+        private final Counter exhausted;
+        private int next;
+        private int filled;
+        private int sinceRecompute;
+        private volatile long delayNanos = TimeUnit.MILLISECONDS.toNanos(properties.maxDelayMs());
+
+        private HedgeState(String name) {
+            this.sent = Counter.builder("hedge.sent")
+                    .description("Second attempts fired because the first one was slower than the hedge delay")
+                    .tag("call", name)
+                    .register(registry);
+            this.won = Counter.builder("hedge.won")
+                    .description("Hedged attempts that answered before the original one")
+                    .tag("call", name)
+                    .register(registry);
+            this.exhausted = Counter.builder("hedge.budget.exhausted")
+                    .description("Hedges skipped because the extra-load budget was used up")
+                    .tag("call", name)
+                    .register(registry);
+            Gauge.builder("hedge.delay", this, s -> s.delayNanos / 1_000_000_000.0)
+                    .description("Current delay before a hedged attempt is fired")
+                    .tag("call", name)
+                    .baseUnit("seconds")
+                    .register(registry);
+        }
+
+        private void deposit() {
+            long amount = Math.round(properties.budgetRatio() * CREDIT);
+            credits.getAndUpdate(c -> Math.min(MAX_CREDITS, c + amount));
+        }
+
+        private boolean withdraw() {
+            long current;
+            do {
+                current = credits.get();
+                if (current < CREDIT) {
+                    exhausted.increment();
+                    return false;
+                }
+            } while (!credits.compareAndSet(current, current - CREDIT));
+            return true;
+        }
+
+        private synchronized void record(long latencyNanos) {
+            samples[next] = latencyNanos;
+            next = (next + 1) % samples.length;
+            filled = Math.min(filled + 1, samples.length);
+            if (++sinceRecompute == RECOMPUTE_EVERY) {
+                sinceRecompute = 0;
+                long[] window = Arrays.copyOf(samples, filled);
+                Arrays.sort(window);
+                long percentile = window[(int) Math.min(window.length - 1, (long) (properties.percentile() * window.length))];
+                delayNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(properties.minDelayMs()),
+                        Math.min(TimeUnit.MILLISECONDS.toNanos(properties.maxDelayMs()), percentile));
+            }
+        }
+    }
+}
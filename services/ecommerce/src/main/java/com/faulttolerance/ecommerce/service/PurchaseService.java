@@ -1,205 +1,507 @@
 package com.faulttolerance.ecommerce.service;
 
+import com.faulttolerance.common.fault.FaultInjector;
+import com.faulttolerance.common.logging.LogSampler;
+import com.faulttolerance.ecommerce.cache.ExchangeRateCache;
+import com.faulttolerance.ecommerce.cache.ExchangeRateUnavailableException;
+import com.faulttolerance.ecommerce.cache.ProductCache;
+import com.faulttolerance.ecommerce.client.DownstreamClient;
+import com.faulttolerance.ecommerce.client.OutOfStockException;
+import com.faulttolerance.ecommerce.model.BatchPurchaseResult;
+import com.faulttolerance.ecommerce.model.BonusEntry;
+import com.faulttolerance.ecommerce.model.ProductResponse;
 import com.faulttolerance.ecommerce.model.PurchaseRequest;
 import com.faulttolerance.ecommerce.model.PurchaseResponse;
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
+import com.faulttolerance.ecommerce.outbox.BonusOutbox;
+import com.faulttolerance.ecommerce.outbox.OutboxEntry;
+import com.faulttolerance.ecommerce.resilience.DownstreamResilience;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Service
 public class PurchaseService {
     private static final Logger logger = LoggerFactory.getLogger(PurchaseService.class);
-
-    @Value("${store.url}")
-    private String storeUrl;
-
-    @Value("${exchange.url}")
-    private String exchangeUrl;
-
-    @Value("${fidelity.url}")
-    private String fidelityUrl;
-
-    private final RestTemplate restTemplate;
-    private final AtomicReference<Double> lastKnownRate = new AtomicReference<>(1.0);
-    private final ExecutorService executorService = Executors.newCachedThreadPool();
-
-    private final List<FidelityRequest> pendingFidelityRequests = new LinkedList<>();
+    // Mensagens por compra passam pela amostragem; as de lote e de reprocessamento não
+    private static final LogSampler sampler = LogSampler.of(logger);
+
+    private static final String STAGE_PRODUCT = "product";
+    private static final String STAGE_EXCHANGE = "exchange";
+    private static final String STAGE_SALE = "sale";
+    private static final String STAGE_BONUS = "bonus";
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_FALLBACK = "fallback";
+    private static final String OUTCOME_ERROR = "error";
+
+    @Value("${purchase.timeout.product-ms:1000}")
+    private long productTimeoutMillis;
+
+    @Value("${purchase.timeout.exchange-ms:1000}")
+    private long exchangeTimeoutMillis;
+
+    @Value("${purchase.timeout.sale-ms:1000}")
+    private long saleTimeoutMillis;
+
+    @Value("${purchase.timeout.bonus-ms:1000}")
+    private long bonusTimeoutMillis;
+
+    @Value("${purchase.batch.concurrency:32}")
+    private int batchConcurrency;
+
+    @Value("${bonus.drain.batch-size:200}")
+    private int drainBatchSize;
+
+    @Value("${bonus.drain.parallelism:4}")
+    private int drainParallelism;
+
+    private final DownstreamClient downstreamClient;
+    private final ProductCache productCache;
+    private final ExchangeRateCache exchangeRateCache;
+    private final DownstreamResilience resilience;
+    private final FaultInjector faultInjector;
+    private final ScheduledExecutorService backgroundExecutor;
+    private final Counter productFallbacks;
+    private final Counter exchangeFallbacks;
+    private final Counter saleFallbacks;
+    private final Counter bonusFallbacks;
+    private final MeterRegistry registry;
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+
+    private final BonusOutbox bonusOutbox;
     private final AtomicReference<LocalDateTime> degradeModeStart = new AtomicReference<>(null);
     private static final long FAILURE_DURATION_SECONDS = 30L;
 
-    public PurchaseService(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
+    public PurchaseService(DownstreamClient downstreamClient,
+                           ProductCache productCache,
+                           ExchangeRateCache exchangeRateCache,
+                           BonusOutbox bonusOutbox,
+                           DownstreamResilience resilience,
+                           FaultInjector faultInjector,
+                           @Qualifier("backgroundExecutor") ScheduledExecutorService backgroundExecutor,
+                           MeterRegistry registry) {
+        this.downstreamClient = downstreamClient;
+        this.productCache = productCache;
+        this.exchangeRateCache = exchangeRateCache;
+        this.bonusOutbox = bonusOutbox;
+        this.resilience = resilience;
+        this.faultInjector = faultInjector;
+        // Pontos do lado do cliente, sem falhas até serem ativados por /actuator/faults/{nome}
+        List.of(DownstreamResilience.STORE_PRODUCT, DownstreamResilience.EXCHANGE_RATE, DownstreamResilience.STORE_SALE)
+                .forEach(faultInjector::point);
+        this.backgroundExecutor = backgroundExecutor;
+        this.registry = registry;
+        this.productFallbacks = fallbackCounter(registry, STAGE_PRODUCT);
+        this.exchangeFallbacks = fallbackCounter(registry, STAGE_EXCHANGE);
+        this.saleFallbacks = fallbackCounter(registry, STAGE_SALE);
+        this.bonusFallbacks = fallbackCounter(registry, STAGE_BONUS);
         // Inicia o processador de bônus pendentes
         startPendingBonusProcessor();
     }
 
+    private static Counter fallbackCounter(MeterRegistry registry, String stage) {
+        return Counter.builder("purchase.fallbacks")
+                .description("Purchases completed with a fallback instead of the downstream response")
+                .tag("stage", stage)
+                .register(registry);
+    }
+
     public CompletableFuture<PurchaseResponse> processPurchase(PurchaseRequest request) {
-        logger.info("Processing purchase for product: {}, user: {}, ft: {}",
-            request.productId(), request.userId(), request.ft());
+        if (sampler.sample()) {
+            logger.info("Processing purchase: product={}, user={}, ft={}",
+                request.productId(), request.userId(), request.ft());
+        }
 
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                // 1. Consulta produto (Request 1)
-                var product = getProduct(request.productId(), request.ft());
+        // 4. Registra bônus (Request 4) com o valor do produto e a venda concluída
+        return sale(request)
+                .thenCompose(step -> timed(STAGE_BONUS, request.ft(), stage(
+                        () -> registerBonus(request.userId(), step.bonus(), request.ft()),
+                        bonusTimeoutMillis), delivered -> delivered ? OUTCOME_SUCCESS : OUTCOME_FALLBACK)
+                        .thenApply(ignored -> new PurchaseResponse(step.transactionId())))
+                .whenComplete((response, e) -> {
+                    if (e != null && sampler.sample()) {
+                        logger.error("Failed to process purchase", unwrap(e));
+                    }
+                });
+    }
 
-                // 2. Obtém taxa de câmbio (Request 2)
-                var exchangeRate = getExchangeRate(request.ft());
+    /**
+     * Compras em lote (POST /buy/batch), indexadas pela linha de origem.
+     * <p>
+     * Os produtos do lote são buscados em uma única consulta ao store e a taxa de câmbio uma única vez;
+     * depois cada compra segue o mesmo pipeline, com no máximo {@code batchConcurrency} em andamento.
+     * Os bônus são registrados em lotes quando todas as vendas terminam: compras com {@code ft=true}
+     * são respondidas logo após a venda, as demais só depois do registro do bônus. Retorna quando
+     * todas as compras tiverem sido respondidas em {@code sink}.
+     */
+    public void processBatch(Map<Long, PurchaseRequest> purchases, Consumer<BatchPurchaseResult> sink) {
+        prefetch(purchases.values());
+
+        Semaphore permits = new Semaphore(batchConcurrency);
+        List<BatchBonus> bonuses = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<PurchaseStep>> sales = new ArrayList<>(purchases.size());
+        purchases.forEach((line, request) -> {
+            permits.acquireUninterruptibly();
+            sales.add(sale(request).whenComplete((step, e) -> {
+                permits.release();
+                if (e != null) {
+                    sink.accept(BatchPurchaseResult.failed(line, describe(e)));
+                    return;
+                }
+                bonuses.add(new BatchBonus(line, request, step));
+                if (request.ft()) {
+                    sink.accept(BatchPurchaseResult.completed(line, step.transactionId()));
+                }
+            }));
+        });
+        CompletableFuture.allOf(sales.toArray(CompletableFuture[]::new)).handle((ignored, e) -> null).join();
+
+        List<CompletableFuture<Void>> registrations = new ArrayList<>();
+        List<BatchBonus> strict = bonuses.stream().filter(b -> !b.request().ft()).toList();
+        List<BatchBonus> tolerant = bonuses.stream().filter(b -> b.request().ft()).toList();
+        for (int from = 0; from < strict.size(); from += drainBatchSize) {
+            registrations.add(registerStrictBonuses(strict.subList(from, Math.min(from + drainBatchSize, strict.size())), sink));
+        }
+        for (int from = 0; from < tolerant.size(); from += drainBatchSize) {
+            registrations.add(registerTolerantBonuses(tolerant.subList(from, Math.min(from + drainBatchSize, tolerant.size()))));
+        }
+        CompletableFuture.allOf(registrations.toArray(CompletableFuture[]::new)).join();
+        logger.info("Processed purchase batch: purchases={}, sales={}", purchases.size(), bonuses.size());
+    }
 
-                // 3. Processa venda (Request 3)
-                var transactionId = processSale(request.productId(), request.ft());
+    /**
+     * Requests 1 a 3 da compra; o registro do bônus fica a cargo de quem chama.
+     */
+    private CompletableFuture<PurchaseStep> sale(PurchaseRequest request) {
+        Long productId = request.productId();
+        boolean ft = request.ft();
+
+        // 1. Consulta produto (Request 1) e 2. taxa de câmbio (Request 2) são independentes
+        CompletableFuture<ProductResponse> product = stage(STAGE_PRODUCT,
+                () -> getProduct(productId, ft), productTimeoutMillis, ft,
+                t -> fallbackProduct(productId, t));
+        CompletableFuture<Double> exchangeRate = stage(STAGE_EXCHANGE,
+                () -> getExchangeRate(ft), exchangeTimeoutMillis, ft,
+                this::fallbackExchangeRate);
+
+        // 3. Processa venda (Request 3) somente após 1 e 2, para não vender com consulta falha
+        CompletableFuture<String> sale = product.thenCombine(exchangeRate, (p, rate) -> productId)
+                .thenCompose(id -> stage(STAGE_SALE,
+                        () -> processSale(id, ft), saleTimeoutMillis, ft,
+                        t -> fallbackSale(id, t)));
+
+        return sale.thenCombine(product, PurchaseStep::new);
+    }
 
-                // 4. Registra bônus (Request 4)
-                int bonus = (int) Math.round(product.value());
-                registerBonus(request.userId(), bonus, request.ft());
+    private void prefetch(Collection<PurchaseRequest> requests) {
+        List<Long> productIds = requests.stream()
+                .map(PurchaseRequest::productId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        CompletableFuture<?> products = stage(() -> productCache.getAll(productIds), productTimeoutMillis);
+        CompletableFuture<?> exchangeRate = stage(exchangeRateCache::getRate, exchangeTimeoutMillis);
+        // Falha aqui não interrompe o lote: cada compra repete a consulta e aplica seu próprio fallback
+        CompletableFuture.allOf(products, exchangeRate).handle((ignored, e) -> null).join();
+    }
 
-                return new PurchaseResponse(transactionId);
-            } catch (Exception e) {
-                logger.error("Failed to process purchase", e);
-                throw e;
-            }
-        }, executorService);
+    private CompletableFuture<Void> registerStrictBonuses(List<BatchBonus> batch, Consumer<BatchPurchaseResult> sink) {
+        return stage(() -> downstreamClient.registerBonuses(toEntries(batch)), bonusTimeoutMillis)
+                .handle((results, e) -> {
+                    for (int i = 0; i < batch.size(); i++) {
+                        BatchBonus bonus = batch.get(i);
+                        if (e != null) {
+                            sink.accept(BatchPurchaseResult.failed(bonus.line(), describe(e)));
+                        } else if (results.size() != batch.size()) {
+                            sink.accept(BatchPurchaseResult.failed(bonus.line(), "Unexpected fidelity response"));
+                        } else if (!results.get(i).applied()) {
+                            sink.accept(BatchPurchaseResult.failed(bonus.line(), "Bonus rejected: " + results.get(i).error()));
+                        } else {
+                            sink.accept(BatchPurchaseResult.completed(bonus.line(), bonus.step().transactionId()));
+                        }
+                    }
+                    return null;
+                });
     }
 
-    @CircuitBreaker(name = "storeProduct", fallbackMethod = "fallbackProduct")
-    @TimeLimiter(name = "storeProduct")
-    private ProductResponse getProduct(Long productId, boolean ft) {
-        String url = storeUrl + "/product/" + productId;
-        try {
-            return restTemplate.getForObject(url, ProductResponse.class);
-        } catch (Exception e) {
-            if (ft) {
-                return fallbackProduct(productId, e, ft);
-            }
-            throw e;
+    private CompletableFuture<Void> registerTolerantBonuses(List<BatchBonus> batch) {
+        if (isInDegradeMode()) {
+            logger.warn("Fidelity in degrade mode => storing batch bonuses for later: purchases={}", batch.size());
+            return storeFidelityRequests(batch);
         }
+        return resilience.call(DownstreamResilience.FIDELITY_BONUS, () -> downstreamClient.registerBonuses(toEntries(batch)))
+                .handle((results, e) -> {
+                    if (e != null || results.size() != batch.size()) {
+                        logger.warn("Failed to register batch bonuses, storing for retry: purchases={}", batch.size());
+                        activateDegradeMode();
+                        return storeFidelityRequests(batch);
+                    }
+                    for (int i = 0; i < batch.size(); i++) {
+                        if (!results.get(i).applied()) {
+                            logger.error("Batch bonus rejected by fidelity: user={}, bonus={}, error={}",
+                                batch.get(i).request().userId(), batch.get(i).step().bonus(), results.get(i).error());
+                        }
+                    }
+                    return CompletableFuture.<Void>completedFuture(null);
+                })
+                .thenCompose(Function.identity());
     }
 
-    private ProductResponse fallbackProduct(Long productId, Throwable t, boolean ft) {
-        logger.warn("Product service failed, using fallback. Error: {}", t.getMessage());
-        return new ProductResponse(productId, "Fallback Product", 0.0);
+    private static List<BonusEntry> toEntries(List<BatchBonus> batch) {
+        return batch.stream()
+                .map(b -> new BonusEntry(b.request().userId(), b.step().bonus()))
+                .toList();
+    }
+
+    private static String describe(Throwable t) {
+        Throwable cause = unwrap(t);
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
     }
 
-    @CircuitBreaker(name = "exchangeRate", fallbackMethod = "fallbackExchangeRate")
-    @TimeLimiter(name = "exchangeRate")
-    private double getExchangeRate(boolean ft) {
+    private <T> CompletableFuture<T> stage(Supplier<CompletableFuture<T>> call, long timeoutMillis) {
         try {
-            Double rate = restTemplate.getForObject(exchangeUrl + "/exchange", Double.class);
-            if (rate != null && rate > 0) {
-                lastKnownRate.set(rate);
-                return rate;
+            return call.get().orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private <T> CompletableFuture<T> stage(String name, Supplier<CompletableFuture<T>> call, long timeoutMillis,
+                                           boolean ft, Function<Throwable, T> fallback) {
+        long start = System.nanoTime();
+        CompletableFuture<T> future = stage(call, timeoutMillis);
+        if (!ft) {
+            return timed(name, false, start, future);
+        }
+        return future.handle((value, t) -> {
+            if (t == null) {
+                record(name, true, OUTCOME_SUCCESS, start);
+                return value;
+            }
+            Throwable cause = unwrap(t);
+            // Sobrecarga não é falha do downstream: propaga para o controller responder 503
+            if (cause instanceof RejectedExecutionException rejected) {
+                record(name, true, OUTCOME_ERROR, start);
+                throw rejected;
             }
-            throw new RuntimeException("Invalid exchange rate");
-        } catch (Exception e) {
-            if (ft) {
-                return fallbackExchangeRate(e, ft);
+            // Sem estoque é resposta de negócio: inventar uma venda creditaria bônus de compra inexistente
+            if (cause instanceof OutOfStockException outOfStock) {
+                record(name, true, OUTCOME_ERROR, start);
+                throw outOfStock;
             }
-            throw e;
+            T fallbackValue;
+            try {
+                fallbackValue = fallback.apply(cause);
+            } catch (RuntimeException e) {
+                record(name, true, OUTCOME_ERROR, start);
+                throw e;
+            }
+            record(name, true, OUTCOME_FALLBACK, start);
+            return fallbackValue;
+        });
+    }
+
+    private <T> CompletableFuture<T> timed(String name, boolean ft, long start, CompletableFuture<T> future) {
+        return future.whenComplete((value, t) -> record(name, ft, t == null ? OUTCOME_SUCCESS : OUTCOME_ERROR, start));
+    }
+
+    private <T> CompletableFuture<T> timed(String name, boolean ft, CompletableFuture<T> future,
+                                           Function<T, String> outcome) {
+        long start = System.nanoTime();
+        return future.whenComplete((value, t) -> record(name, ft, t == null ? outcome.apply(value) : OUTCOME_ERROR, start));
+    }
+
+    /**
+     * Tempo de uma etapa do /buy em {@code purchase.stage}; os histogramas e buckets de SLO são
+     * configurados em {@code management.metrics.distribution} no application.yml.
+     */
+    private void record(String name, boolean ft, String outcome, long start) {
+        stageTimers.computeIfAbsent(name + '/' + outcome + '/' + ft, key -> Timer.builder("purchase.stage")
+                        .description("Time spent in each stage of a purchase")
+                        .tag("stage", name)
+                        .tag("outcome", outcome)
+                        .tag("ft", String.valueOf(ft))
+                        .register(registry))
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private static Throwable unwrap(Throwable t) {
+        return t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+    }
+
+    /**
+     * Com {@code ft} a chamada passa pelo circuit breaker, time limiter e bulkhead de {@code name};
+     * sem {@code ft} ela segue direto, limitada apenas pelo timeout da etapa. Falhas injetadas no ponto
+     * {@code name} acontecem dentro da resiliência, que as trata como falhas do serviço.
+     */
+    private <T> CompletableFuture<T> guarded(String name, boolean ft, Supplier<CompletableFuture<T>> call) {
+        Supplier<CompletableFuture<T>> faulty = () -> faultInjector.point(name).compose(call);
+        return ft ? resilience.call(name, faulty) : faulty.get();
+    }
+
+    private CompletableFuture<ProductResponse> getProduct(Long productId, boolean ft) {
+        // Hits respondem do cache; só a consulta ao store de um miss passa pela resiliência
+        return productCache.get(productId, load -> guarded(DownstreamResilience.STORE_PRODUCT, ft, load));
+    }
+
+    private ProductResponse fallbackProduct(Long productId, Throwable t) {
+        if (sampler.sample()) {
+            logger.warn("Product service failed, using fallback: product={}, error={}", productId, t.getMessage());
         }
+        productFallbacks.increment();
+        return new ProductResponse(productId, "Fallback Product", 0.0);
     }
 
-    private double fallbackExchangeRate(Throwable t, boolean ft) {
-        logger.warn("Exchange service failed, using last known rate: {}", lastKnownRate.get());
-        return lastKnownRate.get();
+    private CompletableFuture<Double> getExchangeRate(boolean ft) {
+        // Como no produto: hits respondem do cache e só a primeira consulta passa pela resiliência
+        return exchangeRateCache.getRate(load -> guarded(DownstreamResilience.EXCHANGE_RATE, ft, load));
     }
 
-    @CircuitBreaker(name = "storeSale", fallbackMethod = "fallbackSale")
-    @TimeLimiter(name = "storeSale")
-    private String processSale(Long productId, boolean ft) {
-        String url = storeUrl + "/sell?product=" + productId;
-        try {
-            var response = restTemplate.postForEntity(url, null, String.class);
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                return response.getBody();
-            }
-            throw new RuntimeException("Invalid response from store service");
-        } catch (Exception e) {
-            if (ft) {
-                return fallbackSale(productId, e, ft);
-            }
-            throw e;
+    private double fallbackExchangeRate(Throwable t) {
+        // Sem nenhuma taxa obtida desde o início não há fallback: a compra falha em vez de usar um valor inventado
+        double rate = exchangeRateCache.lastKnownRate()
+                .orElseThrow(() -> new ExchangeRateUnavailableException(t));
+        exchangeFallbacks.increment();
+        if (sampler.sample()) {
+            logger.warn("Exchange rate unavailable, using last known rate: rate={}, error={}", rate, t.getMessage());
         }
+        return rate;
+    }
+
+    private CompletableFuture<String> processSale(Long productId, boolean ft) {
+        return guarded(DownstreamResilience.STORE_SALE, ft, () -> downstreamClient.sell(productId));
     }
 
-    private String fallbackSale(Long productId, Throwable t, boolean ft) {
-        logger.warn("Store service failed, using fallback transaction ID. Error: {}", t.getMessage());
+    private String fallbackSale(Long productId, Throwable t) {
+        if (sampler.sample()) {
+            logger.warn("Store service failed, using fallback transaction ID: product={}, error={}",
+                productId, t.getMessage());
+        }
+        saleFallbacks.increment();
         return UUID.randomUUID().toString();
     }
 
-    private void registerBonus(Long userId, int bonus, boolean ft) {
+    /**
+     * @return {@code false} quando o bônus foi direto para o outbox (modo degradado)
+     */
+    private CompletableFuture<Boolean> registerBonus(Long userId, int bonus, boolean ft) {
         if (!ft) {
-            String url = String.format("%s/bonus?user=%s&bonus=%d", fidelityUrl, userId, bonus);
-            restTemplate.postForEntity(url, null, Void.class);
-            return;
+            return downstreamClient.registerBonus(userId, bonus).thenApply(ignored -> true);
         }
 
-        CompletableFuture.runAsync(() -> {
-            try {
-                if (isInDegradeMode()) {
-                    logger.warn("Fidelity in degrade mode => storing request for later: user={}, bonus={}", userId, bonus);
-                    storeFidelityRequest(userId, bonus);
-                    return;
-                }
+        if (isInDegradeMode()) {
+            if (sampler.sample()) {
+                logger.warn("Fidelity in degrade mode => storing request for later: user={}, bonus={}", userId, bonus);
+            }
+            return storeFidelityRequest(userId, bonus).thenApply(stored -> false);
+        }
 
-                String url = String.format("%s/bonus?user=%s&bonus=%d", fidelityUrl, userId, bonus);
-                restTemplate.postForEntity(url, null, Void.class);
-                logger.info("Bonus registered successfully for user: {}, bonus: {}", userId, bonus);
-            } catch (Exception e) {
-                logger.warn("Failed to register bonus, storing for retry. User: {}, bonus: {}", userId, bonus);
+        registerBonusAsync(userId, bonus).whenComplete((ignored, e) -> {
+            if (e == null) {
+                if (sampler.sample()) {
+                    logger.info("Bonus registered successfully: user={}, bonus={}", userId, bonus);
+                }
+            } else {
+                if (sampler.sample()) {
+                    logger.warn("Failed to register bonus, storing for retry: user={}, bonus={}", userId, bonus);
+                }
                 storeFidelityRequest(userId, bonus);
                 activateDegradeMode();
             }
-        }, executorService);
+        });
+        return CompletableFuture.completedFuture(true);
+    }
+
+    private CompletableFuture<Void> registerBonusAsync(Long userId, int bonus) {
+        return resilience.call(DownstreamResilience.FIDELITY_BONUS,
+                () -> downstreamClient.registerBonus(userId, bonus));
     }
 
     private void startPendingBonusProcessor() {
-        CompletableFuture.runAsync(() -> {
-            while (true) {
-                try {
-                    if (!isInDegradeMode() && !pendingFidelityRequests.isEmpty()) {
-                        processPendingBonuses();
-                    }
-                    Thread.sleep(5000); // Verifica a cada 5 segundos
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
+        // Verifica a cada 5 segundos
+        backgroundExecutor.scheduleWithFixedDelay(() -> {
+            if (!isInDegradeMode() && !bonusOutbox.isEmpty()) {
+                processPendingBonuses();
             }
-        }, executorService);
+        }, 5, 5, TimeUnit.SECONDS);
     }
 
+    /**
+     * Reenvia o backlog ao fidelity em lotes: as entradas de cada usuário são agrupadas em um
+     * único bônus e até {@code drainParallelism} lotes de {@code drainBatchSize} usuários seguem
+     * em paralelo por rodada. Uma falha de lote interrompe o reenvio e ativa o modo degradado.
+     */
     private void processPendingBonuses() {
-        List<FidelityRequest> successfulRequests = new LinkedList<>();
+        List<OutboxEntry> window;
+        while (!(window = bonusOutbox.peek(drainBatchSize * drainParallelism)).isEmpty()) {
+            Map<Long, CoalescedBonus> byUser = new LinkedHashMap<>();
+            for (OutboxEntry entry : window) {
+                byUser.computeIfAbsent(entry.userId(), CoalescedBonus::new).add(entry);
+            }
 
-        for (FidelityRequest request : pendingFidelityRequests) {
-            try {
-                String url = String.format("%s/bonus?user=%s&bonus=%d",
-                    fidelityUrl, request.userId(), request.bonus());
-
-                restTemplate.postForEntity(url, null, Void.class);
-                successfulRequests.add(request);
-                logger.info("Processed pending bonus: user={}, bonus={}",
-                    request.userId(), request.bonus());
-            } catch (Exception e) {
-                logger.warn("Failed to process pending bonus: user={}, bonus={}",
-                    request.userId(), request.bonus());
+            List<CoalescedBonus> users = new ArrayList<>(byUser.values());
+            List<CompletableFuture<Boolean>> batches = new ArrayList<>();
+            for (int from = 0; from < users.size(); from += drainBatchSize) {
+                batches.add(sendPendingBatch(users.subList(from, Math.min(from + drainBatchSize, users.size()))));
+            }
+
+            boolean allDelivered = batches.stream()
+                    .map(CompletableFuture::join)
+                    .reduce(true, Boolean::logicalAnd);
+            if (!allDelivered) {
                 activateDegradeMode();
-                break;
+                return;
             }
         }
+    }
 
-        pendingFidelityRequests.removeAll(successfulRequests);
+    private CompletableFuture<Boolean> sendPendingBatch(List<CoalescedBonus> batch) {
+        List<BonusEntry> entries = batch.stream()
+                .map(c -> new BonusEntry(c.userId, c.bonus))
+                .toList();
+        return resilience.call(DownstreamResilience.FIDELITY_BONUS,
+                () -> downstreamClient.registerBonuses(entries)).handle((results, e) -> {
+            if (e != null) {
+                logger.warn("Failed to process pending bonus batch: users={}, error={}",
+                    batch.size(), unwrap(e).getMessage());
+                return false;
+            }
+            if (results.size() != batch.size()) {
+                logger.warn("Unexpected pending bonus batch response: sent={}, received={}",
+                    batch.size(), results.size());
+                return false;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                CoalescedBonus bonus = batch.get(i);
+                // Rejeição por validação não se resolve com nova tentativa: a entrada é descartada
+                if (!results.get(i).applied()) {
+                    logger.error("Pending bonus rejected by fidelity: user={}, bonus={}, error={}",
+                        bonus.userId, bonus.bonus, results.get(i).error());
+                }
+                bonus.outboxIds.forEach(bonusOutbox::acknowledge);
+            }
+            logger.info("Processed pending bonus batch: users={}", batch.size());
+            return true;
+        });
     }
 
     private boolean isInDegradeMode() {
@@ -211,12 +513,50 @@ public class PurchaseService {
         degradeModeStart.set(LocalDateTime.now());
     }
 
-    private void storeFidelityRequest(Long userId, int bonus) {
-        pendingFidelityRequests.add(new FidelityRequest(userId, bonus));
-        logger.info("Fidelity request stored => user={}, bonus={}. Pending count={}",
-            userId, bonus, pendingFidelityRequests.size());
+    /**
+     * Grava o bônus no outbox; o future completa quando ele está em disco, sem bloquear quem chama
+     * (muitas vezes o callback de um timeout, na thread do time limiter).
+     */
+    private CompletableFuture<Boolean> storeFidelityRequest(Long userId, int bonus) {
+        bonusFallbacks.increment();
+        return bonusOutbox.append(userId, bonus).whenComplete((stored, e) -> {
+            if (e != null) {
+                logger.error("Failed to store bonus in the outbox: user={}, bonus={}, error={}", userId, bonus,
+                        e.getMessage());
+            } else if (!stored) {
+                logger.error("Bonus outbox is full, dropping bonus: user={}, bonus={}", userId, bonus);
+            } else if (sampler.sample()) {
+                logger.info("Fidelity request stored: user={}, bonus={}, pending={}", userId, bonus, bonusOutbox.size());
+            }
+        });
+    }
+
+    private CompletableFuture<Void> storeFidelityRequests(List<BatchBonus> batch) {
+        return CompletableFuture.allOf(batch.stream()
+                .map(b -> storeFidelityRequest(b.request().userId(), b.step().bonus()))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    private static final class CoalescedBonus {
+        private final long userId;
+        private final List<Long> outboxIds = new ArrayList<>();
+        private int bonus;
+
+        private CoalescedBonus(long userId) {
+            this.userId = userId;
+        }
+
+        private void add(OutboxEntry entry) {
+            bonus += entry.bonus();
+            outboxIds.add(entry.id());
+        }
+    }
+
+    private record PurchaseStep(String transactionId, ProductResponse product) {
+        int bonus() {
+            return (int) Math.round(product.value());
+        }
     }
 
-    private record ProductResponse(Long id, String name, Double value) {}
-    private record FidelityRequest(Long userId, int bonus) {}
+    private record BatchBonus(long line, PurchaseRequest request, PurchaseStep step) {}
 }
@@ -1,9 +1,17 @@
 package com.faulttolerance.exchange.controller;
 
+import com.faulttolerance.exchange.model.RatePoint;
 import com.faulttolerance.exchange.service.ExchangeService;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 public class ExchangeController {
@@ -14,12 +22,27 @@ public class ExchangeController {
     }
 
     @GetMapping("/exchange")
-    public ResponseEntity<Double> getExchangeRate() {
-        try {
-            double rate = exchangeService.getExchangeRate();
-            return ResponseEntity.ok(rate);
-        } catch (RuntimeException e) {
-            return ResponseEntity.status(500).build();
+    public CompletableFuture<ResponseEntity<Double>> getExchangeRate() {
+        return exchangeService.getExchangeRate().handle((rate, e) ->
+                e != null ? ResponseEntity.status(500).build() : ResponseEntity.ok(rate));
+    }
+
+    @GetMapping("/exchange/history")
+    public CompletableFuture<ResponseEntity<List<RatePoint>>> getHistory(
+            @RequestParam(defaultValue = "0") long from,
+            @RequestParam(defaultValue = "" + Long.MAX_VALUE) long to,
+            @RequestParam(defaultValue = "100") int limit) {
+        if (limit < 1 || from > to) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
+        return exchangeService.getHistory(from, to, limit).handle((points, e) ->
+                e != null ? ResponseEntity.status(500).build() : ResponseEntity.ok(points));
+    }
+
+    @GetMapping(value = "/exchange/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public CompletableFuture<ResponseEntity<SseEmitter>> stream(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return exchangeService.subscribe(lastEventId).handle((emitter, e) ->
+                e != null ? ResponseEntity.status(500).build() : ResponseEntity.ok(emitter));
     }
-}
\ No newline at end of file
+}
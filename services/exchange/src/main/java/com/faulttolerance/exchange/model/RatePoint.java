@@ -0,0 +1,7 @@
+package com.faulttolerance.exchange.model;
+
+public record RatePoint(
+    long sequence,    // posição na série de taxas publicadas; id do evento no stream
+    long timestamp,   // epoch em milissegundos
+    double rate       // taxa de conversão
+) {}
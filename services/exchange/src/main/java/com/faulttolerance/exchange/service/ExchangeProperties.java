@@ -0,0 +1,13 @@
+package com.faulttolerance.exchange.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuração da publicação de taxas ({@code exchange.*} no application.properties).
+ */
+@ConfigurationProperties(prefix = "exchange")
+public record ExchangeProperties(
+    long tickMs,            // intervalo entre taxas publicadas
+    int historyCapacity,    // taxas mantidas no histórico; as mais antigas são sobrescritas
+    long streamTimeoutMs    // duração máxima de uma conexão do stream; o cliente reconecta com Last-Event-ID
+) {}
@@ -1,26 +1,83 @@
 package com.faulttolerance.exchange.service;
 
+import com.faulttolerance.common.fault.FaultInjector;
+import com.faulttolerance.common.fault.FaultPoint;
+import com.faulttolerance.exchange.model.RatePoint;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Publica uma nova taxa a cada {@code exchange.tick-ms} no histórico e no stream; as consultas
+ * devolvem a taxa publicada, sem sortear uma nova a cada requisição.
+ */
 @Service
+@EnableConfigurationProperties(ExchangeProperties.class)
 public class ExchangeService {
-    private final AtomicBoolean crashed = new AtomicBoolean(false);
+    // Fail (Crash, 0.1, _): depois da primeira falha o ponto fica em falha permanente (faults.points.exchange)
+    public static final String FAULT_POINT = "exchange";
 
-    public double getExchangeRate() {
-        // Se já crashou, continua crashado indefinidamente
-        if (crashed.get()) {
-            throw new RuntimeException("Service is crashed and not responding");
-        }
+    private final FaultPoint crash;
+    private final RateHistory history;
+    private final RateStream stream;
+    private final ScheduledExecutorService ticker =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("exchange-ticker-"));
 
-        // 10% de chance de crash
-        if (Math.random() < 0.1 && !crashed.get()) {
-            crashed.set(true);
-            throw new RuntimeException("Fail (Crash, 0.1, _) - Service crashed and will remain down");
-        }
+    public ExchangeService(ExchangeProperties properties, FaultInjector faultInjector, MeterRegistry registry) {
+        this.crash = faultInjector.point(FAULT_POINT);
+        this.history = new RateHistory(properties.historyCapacity());
+        this.stream = new RateStream(history, properties.streamTimeoutMs());
+        Gauge.builder("exchange.stream.subscribers", stream, RateStream::subscribers)
+                .description("Open connections to the exchange rate stream")
+                .register(registry);
+
+        tick();
+        ticker.scheduleAtFixedRate(this::tick, properties.tickMs(), properties.tickMs(), TimeUnit.MILLISECONDS);
+    }
 
-        return ThreadLocalRandom.current().nextDouble(0.1, 10.0);
+    public CompletableFuture<Double> getExchangeRate() {
+        return crash.supply(() -> history.latest().rate());
+    }
+
+    /**
+     * Taxas publicadas entre {@code from} e {@code to} (epoch ms), limitadas às {@code limit}
+     * mais recentes (no máximo o histórico inteiro).
+     */
+    public CompletableFuture<List<RatePoint>> getHistory(long from, long to, int limit) {
+        return crash.supply(() -> history.range(from, to, Math.min(limit, history.capacity())));
+    }
+
+    /**
+     * Inscreve no stream de taxas; a inscrição passa pela falha simulada como qualquer requisição.
+     */
+    public CompletableFuture<SseEmitter> subscribe(Long lastEventId) {
+        return crash.supply(() -> stream.subscribe(lastEventId));
+    }
+
+    @PreDestroy
+    public void close() {
+        ticker.shutdownNow();
+        stream.close();
+    }
+
+    private void tick() {
+        history.append(System.currentTimeMillis(), ThreadLocalRandom.current().nextDouble(0.1, 10.0));
+        if (crash.failing()) {
+            // Serviço em crash: as conexões abertas caem junto
+            stream.disconnectAll();
+        } else {
+            stream.publish();
+        }
     }
 }
@@ -0,0 +1,134 @@
+package com.faulttolerance.exchange.service;
+
+import com.faulttolerance.exchange.model.RatePoint;
+
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Buffer circular das últimas taxas publicadas, em arrays primitivos: publicar não aloca.
+ * <p>
+ * Há um único escritor (o ticker do {@link ExchangeService}), que grava o slot e só depois publica a
+ * nova contagem. Quem lê não bloqueia o escritor: copia os slots e confere a contagem de novo, descartando
+ * as posições que podem ter sido sobrescritas durante a cópia, inclusive a que está sendo gravada.
+ */
+class RateHistory {
+    private final int capacity;
+    private final long[] timestamps;
+    private final double[] rates;
+    // Taxas já publicadas; a posição p fica no slot p % capacity
+    private volatile long written;
+
+    RateHistory(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("history capacity must be at least 2: " + capacity);
+        }
+        this.capacity = capacity;
+        this.timestamps = new long[capacity];
+        this.rates = new double[capacity];
+    }
+
+    /**
+     * Publica uma taxa e devolve a sua sequência. Chamado apenas pelo ticker.
+     */
+    long append(long timestamp, double rate) {
+        long sequence = written;
+        int slot = (int) (sequence % capacity);
+        if (sequence > 0) {
+            // Mantém a série ordenada mesmo se o relógio voltar
+            timestamp = Math.max(timestamp, timestamps[(int) ((sequence - 1) % capacity)]);
+        }
+        timestamps[slot] = timestamp;
+        rates[slot] = rate;
+        written = sequence + 1;
+        return sequence;
+    }
+
+    /**
+     * Sequência da última taxa publicada, ou -1 se nenhuma foi publicada.
+     */
+    long lastSequence() {
+        return written - 1;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    RatePoint latest() {
+        List<RatePoint> points = after(lastSequence() - 1, 1);
+        return points.isEmpty() ? null : points.get(0);
+    }
+
+    /**
+     * Até {@code limit} taxas com sequência maior que {@code sequence}, das mais antigas para as mais novas.
+     */
+    List<RatePoint> after(long sequence, int limit) {
+        long end = written;
+        long start = Math.max(Math.max(sequence + 1, oldest(end)), 0);
+        return copy(start, Math.min(end, start + limit), Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * As últimas {@code limit} taxas publicadas entre {@code from} e {@code to} (epoch ms, inclusive),
+     * das mais antigas para as mais novas.
+     */
+    List<RatePoint> range(long from, long to, int limit) {
+        long end = written;
+        long start = Math.max(oldest(end), 0);
+        long first = search(start, end, from);
+        long last = search(first, end, to == Long.MAX_VALUE ? to : to + 1);
+        return copy(Math.max(first, last - limit), last, from, to);
+    }
+
+    /**
+     * Primeira posição em [start, end) com timestamp >= {@code timestamp}.
+     */
+    private long search(long start, long end, long timestamp) {
+        long low = start;
+        long high = end;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (timestamps[(int) (mid % capacity)] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private List<RatePoint> copy(long start, long end, long from, long to) {
+        if (start >= end) {
+            return List.of();
+        }
+        int count = (int) (end - start);
+        long[] copiedTimestamps = new long[count];
+        double[] copiedRates = new double[count];
+        for (int i = 0; i < count; i++) {
+            int slot = (int) ((start + i) % capacity);
+            copiedTimestamps[i] = timestamps[slot];
+            copiedRates[i] = rates[slot];
+        }
+        VarHandle.acquireFence();
+        long valid = oldest(written);
+
+        List<RatePoint> points = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long sequence = start + i;
+            if (sequence >= valid && copiedTimestamps[i] >= from && copiedTimestamps[i] <= to) {
+                points.add(new RatePoint(sequence, copiedTimestamps[i], copiedRates[i]));
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Posição mais antiga que não pode estar sendo sobrescrita com {@code end} taxas publicadas: o escritor
+     * da posição {@code end} grava o slot da posição {@code end - capacity}.
+     */
+    private long oldest(long end) {
+        return end - capacity + 1;
+    }
+}
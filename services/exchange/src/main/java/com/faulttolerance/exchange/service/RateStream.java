@@ -0,0 +1,145 @@
+package com.faulttolerance.exchange.service;
+
+import com.faulttolerance.exchange.model.RatePoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Inscritos do stream de taxas (Server-Sent Events).
+ * <p>
+ * Inscrições e envios passam pela mesma thread, na ordem em que as taxas são publicadas: quem reconecta
+ * com {@code Last-Event-ID} recebe do histórico o que perdeu e depois as novas taxas, sem lacunas nem
+ * repetições. Cada evento é serializado uma vez e enviado a todos os inscritos.
+ */
+class RateStream implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(RateStream.class);
+    private static final String EVENT = "rate";
+
+    private final RateHistory history;
+    private final long timeoutMs;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService sender =
+            Executors.newSingleThreadExecutor(new CustomizableThreadFactory("exchange-stream-"));
+
+    RateStream(RateHistory history, long timeoutMs) {
+        this.history = history;
+        this.timeoutMs = timeoutMs;
+    }
+
+    int subscribers() {
+        return subscribers.size();
+    }
+
+    /**
+     * Novo inscrito; sem {@code lastEventId} recebe a taxa atual, com ele as taxas publicadas depois.
+     */
+    SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        sender.execute(() -> {
+            // Ids acima da última sequência vêm de antes de uma reinicialização do serviço
+            long last = history.lastSequence();
+            long from = lastEventId != null && lastEventId <= last ? lastEventId : last - 1;
+            subscriber.lastSent = from;
+            for (RatePoint point : history.after(from, history.capacity())) {
+                if (!subscriber.send(point, event(point))) {
+                    return;
+                }
+            }
+            subscribers.add(subscriber);
+        });
+        return emitter;
+    }
+
+    /**
+     * Envia aos inscritos as taxas publicadas desde o último envio.
+     */
+    void publish() {
+        sender.execute(() -> {
+            if (subscribers.isEmpty()) {
+                return;
+            }
+            long from = Long.MAX_VALUE;
+            for (Subscriber subscriber : subscribers) {
+                from = Math.min(from, subscriber.lastSent);
+            }
+            for (RatePoint point : history.after(from, history.capacity())) {
+                Set<ResponseBodyEmitter.DataWithMediaType> event = event(point);
+                for (Subscriber subscriber : subscribers) {
+                    subscriber.send(point, event);
+                }
+            }
+        });
+    }
+
+    /**
+     * Encerra todas as conexões, como um serviço que caiu.
+     */
+    void disconnectAll() {
+        sender.execute(() -> {
+            for (Subscriber subscriber : subscribers) {
+                subscribers.remove(subscriber);
+                subscriber.emitter.complete();
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        sender.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    private static Set<ResponseBodyEmitter.DataWithMediaType> event(RatePoint point) {
+        return SseEmitter.event()
+                .id(Long.toString(point.sequence()))
+                .name(EVENT)
+                .data(point, MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    private final class Subscriber {
+        final SseEmitter emitter;
+        // Acessado apenas pela thread de envio
+        long lastSent = -1;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * Envia o evento se ainda não foi enviado; devolve false se a conexão caiu.
+         */
+        boolean send(RatePoint point, Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            if (point.sequence() <= lastSent) {
+                return true;
+            }
+            try {
+                emitter.send(event);
+                lastSent = point.sequence();
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Rate stream subscriber disconnected: {}", e.getMessage());
+                subscribers.remove(this);
+                return false;
+            }
+        }
+    }
+}
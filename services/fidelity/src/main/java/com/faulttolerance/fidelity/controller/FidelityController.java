@@ -1,11 +1,19 @@
 package com.faulttolerance.fidelity.controller;
 
+import com.faulttolerance.fidelity.model.BonusBalance;
+import com.faulttolerance.fidelity.model.BonusEntry;
+import com.faulttolerance.fidelity.model.BonusResult;
+import com.faulttolerance.fidelity.model.LeaderboardEntry;
 import com.faulttolerance.fidelity.service.FidelityService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 public class FidelityController {
+    private static final int MAX_BULK_USERS = 1000;
 
     private final FidelityService fidelityService;
 
@@ -14,14 +22,37 @@ public class FidelityController {
     }
 
     @PostMapping("/bonus")
-    public ResponseEntity<Void> handleBonusOperation(
+    public CompletableFuture<ResponseEntity<Void>> handleBonusOperation(
             @RequestParam Long user,
             @RequestParam Integer bonus) {
-        try {
-            fidelityService.handleBonus(user, bonus);
-            return ResponseEntity.ok().build();
-        } catch (RuntimeException e) {
-            return ResponseEntity.status(500).build();
+        return fidelityService.handleBonus(user, bonus).handle((ignored, e) ->
+                e != null ? ResponseEntity.status(500).build() : ResponseEntity.ok().build());
+    }
+
+    @PostMapping("/bonus/batch")
+    public CompletableFuture<ResponseEntity<List<BonusResult>>> handleBonusBatch(@RequestBody List<BonusEntry> entries) {
+        return fidelityService.handleBonusBatch(entries).handle((results, e) ->
+                e != null ? ResponseEntity.status(500).build() : ResponseEntity.ok(results));
+    }
+
+    @GetMapping("/bonus/{user}")
+    public ResponseEntity<BonusBalance> getBonus(@PathVariable Long user) {
+        return ResponseEntity.ok(new BonusBalance(user, fidelityService.getUserBonus(user)));
+    }
+
+    @GetMapping(value = "/bonus", params = "users")
+    public ResponseEntity<List<BonusBalance>> getBonuses(@RequestParam List<Long> users) {
+        if (users.size() > MAX_BULK_USERS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(fidelityService.getUserBonuses(users));
+    }
+
+    @GetMapping("/bonus/leaderboard")
+    public ResponseEntity<List<LeaderboardEntry>> getLeaderboard(@RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > fidelityService.maxLeaderboardSize()) {
+            return ResponseEntity.badRequest().build();
         }
+        return ResponseEntity.ok(fidelityService.getLeaderboard(limit));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,201 @@
+package com.faulttolerance.fidelity.ledger;
+
+import com.faulttolerance.fidelity.model.LeaderboardEntry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Maiores saldos do {@link BonusLedger}, mantidos a cada crédito sem varrer os usuários.
+ * <p>
+ * O índice guarda os {@code capacity} maiores saldos (o dobro do maior top-N servido, como folga) e
+ * um piso: nenhum usuário fora do índice tem saldo acima dele. Um crédito positivo que termina no piso
+ * ou abaixo não pode mudar o ranking e sai com uma leitura volátil, sem lock; os demais relêem o saldo
+ * atual no ledger sob o lock do índice, então créditos fora de ordem nunca deixam um valor antigo.
+ * As leituras usam a lista publicada a cada mudança e não esperam os créditos.
+ * <p>
+ * Só uma queda de saldo pode tirar um usuário do índice sem que se saiba quem entra no lugar; quando o
+ * índice fica menor que o top-N, ele é reconstruído em segundo plano a partir do ledger. Durante a
+ * reconstrução os usuários creditados são enfileirados e reaplicados ao final.
+ */
+@Component
+public class BonusLeaderboard {
+    private static final Comparator<Entry> RANKING = Comparator.comparingLong(Entry::score).reversed()
+            .thenComparingLong(Entry::user);
+
+    private final BonusLedger ledger;
+    private final int size;
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TreeSet<Entry> ranking = new TreeSet<>(RANKING);
+    private final Map<Long, Entry> members = new HashMap<>();
+    private final Queue<Long> pendingDuringRebuild = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final ExecutorService rebuilder =
+            Executors.newSingleThreadExecutor(new CustomizableThreadFactory("leaderboard-rebuild-"));
+    private final Counter rebuilds;
+
+    private volatile long floor = Long.MIN_VALUE;
+    private volatile boolean rebuilding;
+    private volatile List<LeaderboardEntry> top = List.of();
+
+    public BonusLeaderboard(BonusLedger ledger, @Value("${leaderboard.size:100}") int size, MeterRegistry registry) {
+        this.ledger = ledger;
+        this.size = size;
+        this.capacity = size * 2;
+        this.rebuilds = Counter.builder("leaderboard.rebuilds")
+                .description("Full scans of the ledger to rebuild the leaderboard")
+                .register(registry);
+        rebuild();
+    }
+
+    /**
+     * Maior top-N disponível.
+     */
+    public int size() {
+        return size;
+    }
+
+    public List<LeaderboardEntry> top(int limit) {
+        List<LeaderboardEntry> current = top;
+        return current.subList(0, Math.min(limit, current.size()));
+    }
+
+    /**
+     * Chamado depois de cada crédito no ledger, com o saldo resultante.
+     */
+    public void update(long user, long total, long delta) {
+        if (delta > 0 && total <= floor && !rebuilding) {
+            return;
+        }
+        if (rebuilding) {
+            pendingDuringRebuild.add(user);
+            if (rebuilding) {
+                return;
+            }
+        }
+        lock.lock();
+        try {
+            apply(user);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        rebuilder.shutdownNow();
+    }
+
+    /**
+     * Reconcilia o usuário com o saldo atual no ledger. Chamado sob {@code lock}.
+     */
+    private void apply(long user) {
+        long score = ledger.balance(user);
+        Entry current = members.get(user);
+        if (current != null) {
+            if (current.score() == score) {
+                return;
+            }
+            ranking.remove(current);
+            if (score < floor) {
+                // Abaixo do piso pode haver quem passe à frente: sai do índice
+                members.remove(user);
+                publish();
+                if (ranking.size() < size) {
+                    scheduleRebuild();
+                }
+                return;
+            }
+        } else if (score <= floor) {
+            return;
+        }
+
+        Entry entry = new Entry(user, score);
+        ranking.add(entry);
+        members.put(user, entry);
+        if (ranking.size() > capacity) {
+            Entry evicted = ranking.pollLast();
+            members.remove(evicted.user());
+            floor = Math.max(floor, evicted.score());
+        }
+        publish();
+    }
+
+    private void publish() {
+        List<LeaderboardEntry> entries = new ArrayList<>(Math.min(size, ranking.size()));
+        for (Entry entry : ranking) {
+            if (entries.size() == size) {
+                break;
+            }
+            entries.add(new LeaderboardEntry(entries.size() + 1, entry.user(), entry.score()));
+        }
+        top = List.copyOf(entries);
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            rebuilder.execute(this::rebuild);
+        }
+    }
+
+    private void rebuild() {
+        rebuilding = true;
+        try {
+            PriorityQueue<Entry> best = new PriorityQueue<>(capacity + 1, RANKING.reversed());
+            long[] excluded = {Long.MIN_VALUE};
+            ledger.forEach((user, score) -> {
+                if (best.size() == capacity && RANKING.compare(new Entry(user, score), best.peek()) > 0) {
+                    excluded[0] = Math.max(excluded[0], score);
+                    return;
+                }
+                best.add(new Entry(user, score));
+                if (best.size() > capacity) {
+                    excluded[0] = Math.max(excluded[0], best.poll().score());
+                }
+            });
+
+            lock.lock();
+            try {
+                ranking.clear();
+                members.clear();
+                for (Entry entry : best) {
+                    ranking.add(entry);
+                    members.put(entry.user(), entry);
+                }
+                floor = excluded[0];
+                rebuilding = false;
+                Long user;
+                while ((user = pendingDuringRebuild.poll()) != null) {
+                    apply(user);
+                }
+                publish();
+            } finally {
+                lock.unlock();
+            }
+            rebuilds.increment();
+        } finally {
+            rebuilding = false;
+            rebuildScheduled.set(false);
+        }
+    }
+
+    private record Entry(long user, long score) {}
+}
@@ -0,0 +1,374 @@
+package com.faulttolerance.fidelity.ledger;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Saldos de bônus dos usuários, persistidos em disco local.
+ * <p>
+ * Os saldos ficam em um mapa long → long dividido em shards, cada um com o seu lock. Todo crédito
+ * toma o lock do WAL e, dentro dele, o do shard só para atualizar o mapa; o novo saldo é gravado no
+ * write-ahead log ainda sob o lock do WAL, então a ordem no log é a ordem dos créditos de cada usuário e
+ * leituras do shard nunca esperam pelo log. O fsync é feito em grupo a cada {@code flushIntervalMs}; quem precisa da
+ * durabilidade espera o {@link #durable()} do grupo, sem alocação por crédito.
+ * <p>
+ * Periodicamente o WAL passa para um segmento novo e os shards são copiados para um snapshot. Como o
+ * log guarda saldos e não créditos, reaplicar um registro já refletido no snapshot não muda nada; os
+ * segmentos anteriores à troca são apagados depois que o snapshot está em disco. Na inicialização o
+ * último snapshot é carregado e os segmentos seguintes são reaplicados.
+ */
+@Component
+@EnableConfigurationProperties(LedgerProperties.class)
+public class BonusLedger {
+    private static final Logger logger = LoggerFactory.getLogger(BonusLedger.class);
+    private static final CompletableFuture<Void> DURABLE = CompletableFuture.completedFuture(null);
+
+    private final LedgerProperties properties;
+    private final Path directory;
+    private final LongLongMap[] shards;
+    private final int shardShift;
+    private final ReentrantLock walLock = new ReentrantLock();
+    private final Deque<WalSegment> segments = new ArrayDeque<>();
+    private final ScheduledExecutorService flusher =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("ledger-flusher-"));
+    private final ScheduledExecutorService snapshotter =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("ledger-snapshot-"));
+    private final Timer snapshotTimer;
+
+    private WalSegment active;
+    private long nextSegment = 1;
+    private long writtenSeq;
+    private long flushedSeq;
+    private long snapshotSeq;
+    private CompletableFuture<Void> commit = new CompletableFuture<>();
+
+    public BonusLedger(LedgerProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.directory = Paths.get(properties.directory());
+        int shardCount = Integer.highestOneBit(Math.max(properties.shards(), 1) * 2 - 1);
+        this.shards = new LongLongMap[shardCount];
+        this.shardShift = 64 - Integer.numberOfTrailingZeros(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new LongLongMap(properties.expectedUsers() / shardCount);
+        }
+        recover();
+
+        Gauge.builder("ledger.users", this, BonusLedger::users)
+                .description("Users with a bonus balance")
+                .register(registry);
+        Gauge.builder("ledger.wal.segments", this, BonusLedger::walSegments)
+                .description("Write-ahead log segments not yet covered by a snapshot")
+                .register(registry);
+        this.snapshotTimer = Timer.builder("ledger.snapshot")
+                .description("Time to write a ledger snapshot")
+                .register(registry);
+
+        flusher.scheduleWithFixedDelay(this::flush,
+                properties.flushIntervalMs(), properties.flushIntervalMs(), TimeUnit.MILLISECONDS);
+        snapshotter.scheduleWithFixedDelay(this::snapshotSafely,
+                properties.snapshotIntervalMs(), properties.snapshotIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Credita {@code delta} ao usuário e devolve o novo saldo. O crédito já está no log, mas só é
+     * durável quando o {@link #durable()} obtido depois desta chamada completar.
+     */
+    public long add(long user, long delta) {
+        LongLongMap shard = shardOf(user);
+        CompletableFuture<Void> batch = null;
+        long total;
+        // Ordem dos locks: WAL e depois shard; nenhum caminho toma o WAL segurando um shard
+        walLock.lock();
+        try {
+            synchronized (shard) {
+                total = shard.add(user, delta);
+            }
+            if (!active.hasRoom()) {
+                batch = roll();
+            }
+            active.write(user, total);
+            writtenSeq++;
+        } finally {
+            walLock.unlock();
+        }
+        if (batch != null) {
+            batch.complete(null);
+        }
+        return total;
+    }
+
+    public long balance(long user) {
+        LongLongMap shard = shardOf(user);
+        synchronized (shard) {
+            return shard.get(user, 0);
+        }
+    }
+
+    /**
+     * Percorre todos os saldos, um shard por vez; cada shard é copiado sob o seu lock e percorrido fora dele.
+     */
+    void forEach(LongLongMap.Sink sink) {
+        for (LongLongMap shard : shards) {
+            long[] pairs;
+            synchronized (shard) {
+                pairs = shard.toPairs();
+            }
+            for (int i = 0; i < pairs.length; i += 2) {
+                sink.accept(pairs[i], pairs[i + 1]);
+            }
+        }
+    }
+
+    /**
+     * Completa quando tudo o que já foi creditado estiver em disco. O future é compartilhado por todos
+     * os créditos do mesmo group commit.
+     */
+    public CompletableFuture<Void> durable() {
+        walLock.lock();
+        try {
+            return flushedSeq == writtenSeq ? DURABLE : commit;
+        } finally {
+            walLock.unlock();
+        }
+    }
+
+    public long users() {
+        long users = 0;
+        for (LongLongMap shard : shards) {
+            synchronized (shard) {
+                users += shard.size();
+            }
+        }
+        return users;
+    }
+
+    private int walSegments() {
+        walLock.lock();
+        try {
+            return segments.size();
+        } finally {
+            walLock.unlock();
+        }
+    }
+
+    /**
+     * Troca o segmento ativo do WAL, grava todos os saldos em um snapshot e apaga os segmentos que ele cobre.
+     */
+    public void snapshot() {
+        long start = System.nanoTime();
+        long boundary;
+        CompletableFuture<Void> batch;
+        walLock.lock();
+        try {
+            if (writtenSeq == snapshotSeq) {
+                return;
+            }
+            snapshotSeq = writtenSeq;
+            batch = roll();
+            boundary = active.sequence();
+        } finally {
+            walLock.unlock();
+        }
+        batch.complete(null);
+
+        List<long[]> pairs = new ArrayList<>(shards.length);
+        for (LongLongMap shard : shards) {
+            synchronized (shard) {
+                pairs.add(shard.toPairs());
+            }
+        }
+        LedgerSnapshot.write(directory, boundary, pairs);
+
+        walLock.lock();
+        try {
+            while (segments.peekFirst().sequence() < boundary) {
+                segments.pollFirst().delete();
+            }
+        } finally {
+            walLock.unlock();
+        }
+        deleteSnapshotsBefore(boundary);
+        snapshotTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        logger.info("Ledger snapshot written: users={}, walSegment={}", pairs.stream().mapToLong(p -> p.length / 2).sum(),
+                boundary);
+    }
+
+    @PreDestroy
+    public void close() {
+        flusher.shutdown();
+        snapshotter.shutdown();
+        try {
+            snapshotter.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Com um snapshot final, o próximo início não precisa reaplicar o WAL
+        snapshotSafely();
+        flush();
+    }
+
+    private LongLongMap shardOf(long user) {
+        return shards[(int) (LongLongMap.mix(user) >>> shardShift)];
+    }
+
+    /**
+     * Sincroniza e substitui o segmento ativo; tudo o que foi gravado até aqui passa a ser durável.
+     * Chamado sob {@code walLock}; o grupo devolvido deve ser completado fora do lock.
+     */
+    private CompletableFuture<Void> roll() {
+        active.force();
+        active = WalSegment.open(directory, nextSegment++, properties.segmentBytes());
+        segments.addLast(active);
+        flushedSeq = writtenSeq;
+        CompletableFuture<Void> batch = commit;
+        commit = new CompletableFuture<>();
+        return batch;
+    }
+
+    private void flush() {
+        WalSegment target;
+        long seq;
+        CompletableFuture<Void> batch;
+        walLock.lock();
+        try {
+            if (flushedSeq == writtenSeq) {
+                return;
+            }
+            target = active;
+            seq = writtenSeq;
+            batch = commit;
+            commit = new CompletableFuture<>();
+        } finally {
+            walLock.unlock();
+        }
+
+        // Segmentos anteriores já foram sincronizados ao serem substituídos
+        try {
+            target.force();
+        } catch (RuntimeException e) {
+            batch.completeExceptionally(e);
+            throw e;
+        }
+
+        CompletableFuture<Void> caughtUp = null;
+        walLock.lock();
+        try {
+            flushedSeq = Math.max(flushedSeq, seq);
+            if (flushedSeq == writtenSeq) {
+                // Quem pediu durable() durante o fsync, sem nada gravado depois, também já está em disco
+                caughtUp = commit;
+                commit = new CompletableFuture<>();
+            }
+        } finally {
+            walLock.unlock();
+        }
+        batch.complete(null);
+        if (caughtUp != null) {
+            caughtUp.complete(null);
+        }
+    }
+
+    private void snapshotSafely() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            logger.error("Ledger snapshot failed; the write-ahead log is kept", e);
+        }
+    }
+
+    private void recover() {
+        long start = System.nanoTime();
+        List<Path> snapshots;
+        List<Path> walFiles;
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> listing = Files.list(directory)) {
+                List<Path> files = listing.sorted().toList();
+                snapshots = files.stream().filter(path -> isFile(path, "snapshot-", ".bin")).toList();
+                walFiles = files.stream().filter(path -> isFile(path, "wal-", ".log")).toList();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to recover ledger from " + directory, e);
+        }
+
+        long boundary = 0;
+        long loaded = 0;
+        if (!snapshots.isEmpty()) {
+            Path latest = snapshots.get(snapshots.size() - 1);
+            boundary = LedgerSnapshot.walSequenceOf(latest);
+            loaded = LedgerSnapshot.read(latest,
+                    entries -> {
+                        for (LongLongMap shard : shards) {
+                            shard.ensureCapacity(entries / shards.length + entries / (shards.length * 8));
+                        }
+                    },
+                    (user, total) -> shardOf(user).put(user, total));
+        }
+
+        long replayed = 0;
+        for (Path file : walFiles) {
+            long sequence = WalSegment.sequenceOf(file);
+            WalSegment segment = WalSegment.open(directory, sequence, properties.segmentBytes());
+            if (sequence < boundary) {
+                // Coberto pelo snapshot: sobrou de uma remoção interrompida
+                segment.delete();
+                continue;
+            }
+            replayed += segment.replay((user, total) -> shardOf(user).put(user, total));
+            segments.addLast(segment);
+            nextSegment = sequence + 1;
+        }
+        nextSegment = Math.max(nextSegment, boundary);
+        if (segments.isEmpty()) {
+            segments.addLast(WalSegment.open(directory, nextSegment++, properties.segmentBytes()));
+        }
+        active = segments.peekLast();
+        // Registros reaplicados contam como escritos: o primeiro snapshot os compacta
+        writtenSeq = replayed;
+        flushedSeq = replayed;
+        logger.info("Ledger recovered in {}ms: users={}, snapshotEntries={}, walRecords={}",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), users(), loaded, replayed);
+    }
+
+    private void deleteSnapshotsBefore(long boundary) {
+        try (Stream<Path> listing = Files.list(directory)) {
+            for (Path path : listing.toList()) {
+                // Temporários só sobram de um snapshot interrompido
+                if (isFile(path, "snapshot-", ".bin") && LedgerSnapshot.walSequenceOf(path) < boundary
+                        || isFile(path, "snapshot-", ".bin.tmp")) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to delete old ledger snapshots in {}", directory, e);
+        }
+    }
+
+    private static boolean isFile(Path path, String prefix, String suffix) {
+        String name = path.getFileName().toString();
+        return name.startsWith(prefix) && name.endsWith(suffix);
+    }
+}
@@ -0,0 +1,16 @@
+package com.faulttolerance.fidelity.ledger;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuração do ledger de bônus ({@code ledger.*} no application.properties).
+ */
+@ConfigurationProperties(prefix = "ledger")
+public record LedgerProperties(
+    String directory,         // diretório do WAL e dos snapshots
+    int shards,               // shards do mapa de saldos, arredondado para potência de 2
+    int expectedUsers,        // dimensionamento inicial do mapa
+    int segmentBytes,         // tamanho de cada segmento do WAL
+    long flushIntervalMs,     // janela do group commit
+    long snapshotIntervalMs   // intervalo entre snapshots; os segmentos cobertos são apagados
+) {}
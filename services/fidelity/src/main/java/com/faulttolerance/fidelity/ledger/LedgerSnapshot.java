@@ -0,0 +1,153 @@
+package com.faulttolerance.fidelity.ledger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Snapshot do ledger: todos os saldos em pares {@code (usuário, saldo)}, com o número do primeiro
+ * segmento do WAL que ele não cobre no nome do arquivo. Gravado em um arquivo temporário e movido
+ * atomicamente, então um snapshot visível está sempre completo; o CRC no final detecta corrupção.
+ */
+final class LedgerSnapshot {
+    private static final long MAGIC = 0x4C45444745523031L; // "LEDGER01"
+    private static final int HEADER_SIZE = 8 + 8;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private LedgerSnapshot() {
+    }
+
+    static Path pathOf(Path directory, long walSequence) {
+        return directory.resolve(String.format("snapshot-%020d.bin", walSequence));
+    }
+
+    static long walSequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring("snapshot-".length(), name.length() - ".bin".length()));
+    }
+
+    /**
+     * @param shards entradas de cada shard, como devolvidas por {@link LongLongMap#toPairs()}
+     */
+    static void write(Path directory, long walSequence, List<long[]> shards) {
+        Path target = pathOf(directory, walSequence);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        long entries = shards.stream().mapToLong(pairs -> pairs.length / 2).sum();
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            buffer.putLong(MAGIC).putLong(entries);
+            for (long[] pairs : shards) {
+                for (long value : pairs) {
+                    if (!buffer.hasRemaining()) {
+                        drain(channel, buffer, crc);
+                    }
+                    buffer.putLong(value);
+                }
+            }
+            drain(channel, buffer, crc);
+            buffer.putInt((int) crc.getValue()).flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write ledger snapshot " + temp, e);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to publish ledger snapshot " + target, e);
+        }
+    }
+
+    /**
+     * Entrega as entradas do snapshot ao {@code sink}, avisando antes a quantidade para o mapa ser
+     * dimensionado de uma vez.
+     *
+     * @return quantidade de entradas lidas
+     */
+    static long read(Path path, IntConsumer sizeHint, LongLongMap.Sink sink) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Reader reader = new Reader(path, channel);
+            reader.ensure(HEADER_SIZE);
+            if (reader.buffer.getLong() != MAGIC) {
+                throw new IllegalStateException("Not a ledger snapshot: " + path);
+            }
+            long entries = reader.buffer.getLong();
+            sizeHint.accept((int) Math.min(entries, Integer.MAX_VALUE));
+            for (long read = 0; read < entries; read++) {
+                reader.ensure(16);
+                sink.accept(reader.buffer.getLong(), reader.buffer.getLong());
+            }
+            reader.verify();
+            return entries;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read ledger snapshot " + path, e);
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer, CRC32 crc) throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Leitura em blocos do corpo do snapshot (tudo antes do CRC final), calculando o CRC do que é lido.
+     */
+    private static final class Reader {
+        private final Path path;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).limit(0);
+        private final CRC32 crc = new CRC32();
+        private long bodyRemaining;
+
+        private Reader(Path path, FileChannel channel) throws IOException {
+            this.path = path;
+            this.channel = channel;
+            this.bodyRemaining = channel.size() - 4;
+        }
+
+        void ensure(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            buffer.compact();
+            int start = buffer.position();
+            int wanted = (int) Math.min(buffer.remaining(), Math.max(bodyRemaining, 0));
+            buffer.limit(start + wanted);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    break;
+                }
+            }
+            bodyRemaining -= buffer.position() - start;
+            crc.update(buffer.duplicate().flip().position(start));
+            buffer.flip();
+            if (buffer.remaining() < bytes) {
+                throw new IllegalStateException("Truncated ledger snapshot: " + path);
+            }
+        }
+
+        void verify() throws IOException {
+            ByteBuffer trailer = ByteBuffer.allocate(4);
+            channel.read(trailer, channel.size() - 4);
+            if (buffer.hasRemaining() || bodyRemaining != 0 || trailer.flip().getInt() != (int) crc.getValue()) {
+                throw new IllegalStateException("Corrupted ledger snapshot: " + path);
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.faulttolerance.fidelity.ledger;
+
+/**
+ * Mapa long → long de endereçamento aberto (sondagem linear) sobre dois arrays primitivos, sem
+ * boxing nem objeto por entrada. A chave 0 marca posição vazia e é guardada à parte. Não é
+ * thread-safe: cada shard do {@link BonusLedger} é usado sob o seu próprio lock.
+ */
+final class LongLongMap {
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+    private boolean hasZeroKey;
+    private long zeroValue;
+
+    LongLongMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Soma {@code delta} ao valor da chave (0 se ausente) e devolve o novo valor.
+     */
+    long add(long key, long delta) {
+        if (key == 0) {
+            hasZeroKey = true;
+            return zeroValue += delta;
+        }
+        int index = indexOf(key);
+        if (keys[index] == key) {
+            return values[index] += delta;
+        }
+        insert(index, key, delta);
+        return delta;
+    }
+
+    void put(long key, long value) {
+        if (key == 0) {
+            hasZeroKey = true;
+            zeroValue = value;
+            return;
+        }
+        int index = indexOf(key);
+        if (keys[index] == key) {
+            values[index] = value;
+        } else {
+            insert(index, key, value);
+        }
+    }
+
+    long get(long key, long defaultValue) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int index = indexOf(key);
+        return keys[index] == key ? values[index] : defaultValue;
+    }
+
+    int size() {
+        return size + (hasZeroKey ? 1 : 0);
+    }
+
+    /**
+     * Cópia das entradas em pares {@code [chave, valor, chave, valor, ...]}, para gravar fora do lock.
+     */
+    long[] toPairs() {
+        long[] pairs = new long[size() * 2];
+        int next = 0;
+        if (hasZeroKey) {
+            pairs[next++] = 0;
+            pairs[next++] = zeroValue;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                pairs[next++] = keys[i];
+                pairs[next++] = values[i];
+            }
+        }
+        return pairs;
+    }
+
+    void ensureCapacity(int expectedSize) {
+        int capacity = capacityFor(expectedSize);
+        if (capacity > keys.length) {
+            rehash(capacity);
+        }
+    }
+
+    private int indexOf(long key) {
+        int index = (int) mix(key) & mask;
+        while (keys[index] != 0 && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void insert(int index, long key, long value) {
+        keys[index] = key;
+        values[index] = value;
+        if (++size > resizeAt) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != 0) {
+                int index = indexOf(key);
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = (long) Math.ceil(Math.max(expectedSize, 8) / LOAD_FACTOR);
+        return (int) Math.min(1L << 30, Long.highestOneBit(needed - 1) << 1);
+    }
+
+    /**
+     * Consumidor de entradas sem boxing.
+     */
+    @FunctionalInterface
+    interface Sink {
+        void accept(long key, long value);
+    }
+
+    static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+}
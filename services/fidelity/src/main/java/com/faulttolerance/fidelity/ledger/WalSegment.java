@@ -0,0 +1,108 @@
+package com.faulttolerance.fidelity.ledger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Segmento do write-ahead log do ledger: arquivo de tamanho fixo mapeado em memória, com registros
+ * {@code (usuário, saldo)} de tamanho fixo protegidos por CRC. O registro guarda o saldo resultante,
+ * e não o crédito, então reaplicá-lo é idempotente. Um byte de tipo zero marca o fim dos dados.
+ */
+final class WalSegment {
+    static final int RECORD_SIZE = 1 + 8 + 8 + 4;
+    private static final byte SET = 1;
+    private static final int PAYLOAD_SIZE = RECORD_SIZE - 4;
+
+    private final long sequence;
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    // Janela reaproveitada para o CRC, para a escrita não alocar
+    private final ByteBuffer view;
+    private final CRC32 crc = new CRC32();
+
+    private WalSegment(long sequence, Path path, MappedByteBuffer buffer) {
+        this.sequence = sequence;
+        this.path = path;
+        this.buffer = buffer;
+        this.view = buffer.duplicate();
+    }
+
+    static WalSegment open(Path directory, long sequence, int segmentBytes) {
+        Path path = directory.resolve(String.format("wal-%020d.log", sequence));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = Math.max(channel.size(), segmentBytes);
+            return new WalSegment(sequence, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open ledger segment " + path, e);
+        }
+    }
+
+    static long sequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring("wal-".length(), name.length() - ".log".length()));
+    }
+
+    /**
+     * Lê os registros válidos desde o início e posiciona a escrita logo após o último deles;
+     * um registro incompleto (escrita interrompida) é descartado e será sobrescrito.
+     *
+     * @return quantidade de registros reaplicados
+     */
+    long replay(LongLongMap.Sink sink) {
+        long records = 0;
+        buffer.position(0);
+        while (buffer.remaining() >= RECORD_SIZE) {
+            int start = buffer.position();
+            if (buffer.get(start) != SET || checksum(start) != buffer.getInt(start + PAYLOAD_SIZE)) {
+                break;
+            }
+            sink.accept(buffer.getLong(start + 1), buffer.getLong(start + 9));
+            buffer.position(start + RECORD_SIZE);
+            records++;
+        }
+        return records;
+    }
+
+    boolean hasRoom() {
+        return buffer.remaining() >= RECORD_SIZE;
+    }
+
+    void write(long user, long total) {
+        int start = buffer.position();
+        buffer.putLong(start + 1, user).putLong(start + 9, total);
+        buffer.put(start, SET);
+        buffer.putInt(start + PAYLOAD_SIZE, checksum(start));
+        buffer.position(start + RECORD_SIZE);
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    void delete() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete ledger segment " + path, e);
+        }
+    }
+
+    long sequence() {
+        return sequence;
+    }
+
+    private int checksum(int start) {
+        crc.reset();
+        view.clear().position(start).limit(start + PAYLOAD_SIZE);
+        crc.update(view);
+        return (int) crc.getValue();
+    }
+}
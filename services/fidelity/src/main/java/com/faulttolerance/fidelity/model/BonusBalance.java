@@ -0,0 +1,6 @@
+package com.faulttolerance.fidelity.model;
+
+public record BonusBalance(
+    Long user,        // id do usuário
+    Long totalBonus   // saldo atual; 0 para usuários sem bônus
+) {}
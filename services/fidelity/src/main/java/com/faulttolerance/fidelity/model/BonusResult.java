@@ -0,0 +1,16 @@
+package com.faulttolerance.fidelity.model;
+
+public record BonusResult(
+    Long user,           // id do usuário
+    boolean applied,     // se o bônus foi creditado
+    Long totalBonus,     // saldo após o crédito
+    String error         // motivo da rejeição, se houver
+) {
+    public static BonusResult applied(Long user, long totalBonus) {
+        return new BonusResult(user, true, totalBonus, null);
+    }
+
+    public static BonusResult rejected(Long user, String error) {
+        return new BonusResult(user, false, null, error);
+    }
+}
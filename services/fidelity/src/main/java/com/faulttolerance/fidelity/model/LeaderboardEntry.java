@@ -0,0 +1,7 @@
+package com.faulttolerance.fidelity.model;
+
+public record LeaderboardEntry(
+    int rank,         // posição, a partir de 1
+    Long user,        // id do usuário
+    Long totalBonus   // saldo atual
+) {}
@@ -1,77 +1,109 @@
 package com.faulttolerance.fidelity.service;
 
+import com.faulttolerance.common.fault.FaultInjector;
+import com.faulttolerance.common.fault.FaultPoint;
+import com.faulttolerance.common.logging.LogSampler;
+import com.faulttolerance.fidelity.ledger.BonusLeaderboard;
+import com.faulttolerance.fidelity.ledger.BonusLedger;
+import com.faulttolerance.fidelity.model.BonusBalance;
+import com.faulttolerance.fidelity.model.BonusEntry;
+import com.faulttolerance.fidelity.model.BonusResult;
+import com.faulttolerance.fidelity.model.LeaderboardEntry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class FidelityService {
     private static final Logger logger = LoggerFactory.getLogger(FidelityService.class);
-    private static final double FAILURE_PROBABILITY = 0.1;
-    private static final long FAILURE_DURATION_SECONDS = 30L;
-    private static final long FAILURE_DELAY_MILLIS = 2000L;
+    private static final LogSampler sampler = LogSampler.of(logger);
+    // Fail (Time=2s, 0.1, 30s), configurado em faults.points.bonus
+    public static final String FAULT_POINT = "bonus";
 
-    private final AtomicReference<LocalDateTime> failureStart = new AtomicReference<>(null);
-    private final Map<Long, Integer> userBonuses = new ConcurrentHashMap<>();
+    private final BonusLedger ledger;
+    private final BonusLeaderboard leaderboard;
+    private final FaultPoint failure;
 
-    public void handleBonus(Long userId, Integer bonus) {
-        // Primeiro verifica e induz falha se necessário
-        induceFailureIfNeeded();
-
-        // Se passou pela verificação de falha, processa o bônus
-        processBonus(userId, bonus);
+    public FidelityService(BonusLedger ledger, BonusLeaderboard leaderboard, FaultInjector faultInjector) {
+        this.ledger = ledger;
+        this.leaderboard = leaderboard;
+        this.failure = faultInjector.point(FAULT_POINT);
     }
 
-    private void processBonus(Long userId, Integer bonus) {
-        // Atualiza o bônus do usuário
-        userBonuses.compute(userId, (key, currentBonus) -> 
-            currentBonus == null ? bonus : currentBonus + bonus
-        );
-
-        logger.info("Bonus processed successfully: user={}, bonus={}, totalBonus={}", 
-            userId, bonus, userBonuses.get(userId));
+    /**
+     * Aplica o bônus se a chamada não falhar e completa quando o crédito estiver em disco; a falha
+     * chega após o atraso configurado, sem ocupar a thread da requisição durante a espera.
+     */
+    public CompletableFuture<Void> handleBonus(Long userId, Integer bonus) {
+        return failure.compose(() -> {
+            processBonus(userId, bonus);
+            return ledger.durable();
+        });
     }
 
-    private void induceFailureIfNeeded() {
-        LocalDateTime start = failureStart.get();
-        LocalDateTime now = LocalDateTime.now();
+    /**
+     * Aplica um lote de bônus em uma única requisição: a falha simulada é avaliada uma vez
+     * para o lote inteiro e cada entrada recebe seu próprio resultado.
+     */
+    public CompletableFuture<List<BonusResult>> handleBonusBatch(List<BonusEntry> entries) {
+        return failure.compose(() -> {
+            List<BonusResult> results = processBatch(entries);
+            return ledger.durable().thenApply(durable -> results);
+        });
+    }
 
-        // Se está em estado de falha
-        if (start != null) {
-            if (now.isBefore(start.plusSeconds(FAILURE_DURATION_SECONDS))) {
-                simulateTimeDelay();
-                throw new RuntimeException("Fail (Time=2s, 0.1, 30s) - Service in failure state");
-            } else {
-                // Reseta o estado de falha após 30s
-                failureStart.set(null);
-                logger.info("Service recovered from failure state");
+    private List<BonusResult> processBatch(List<BonusEntry> entries) {
+        List<BonusResult> results = new ArrayList<>(entries.size());
+        for (BonusEntry entry : entries) {
+            if (entry.user() == null || entry.bonus() == null) {
+                results.add(BonusResult.rejected(entry.user(), "user and bonus are required"));
+                continue;
             }
+            long total = ledger.add(entry.user(), entry.bonus());
+            leaderboard.update(entry.user(), total, entry.bonus());
+            results.add(BonusResult.applied(entry.user(), total));
         }
 
-        // 10% de chance de entrar em estado de falha
-        if (Math.random() < FAILURE_PROBABILITY) {
-            failureStart.set(LocalDateTime.now());
-            simulateTimeDelay();
-            throw new RuntimeException("Fail (Time=2s, 0.1, 30s) - Entering failure state");
+        if (sampler.sample()) {
+            logger.info("Bonus batch processed: entries={}", entries.size());
         }
+        return results;
     }
 
-    private void simulateTimeDelay() {
-        try {
-            Thread.sleep(FAILURE_DELAY_MILLIS);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Interrupted while simulating delay", e);
+    private void processBonus(Long userId, Integer bonus) {
+        // Atualiza o bônus do usuário
+        long total = ledger.add(userId, bonus);
+        leaderboard.update(userId, total, bonus);
+
+        if (sampler.sample()) {
+            logger.info("Bonus processed successfully: user={}, bonus={}, totalBonus={}", userId, bonus, total);
         }
     }
 
-    // Método para consulta (útil para testes)
-    public Integer getUserBonus(Long userId) {
-        return userBonuses.getOrDefault(userId, 0);
+    public long getUserBonus(Long userId) {
+        return ledger.balance(userId);
+    }
+
+    public List<BonusBalance> getUserBonuses(List<Long> userIds) {
+        List<BonusBalance> balances = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            balances.add(new BonusBalance(userId, ledger.balance(userId)));
+        }
+        return balances;
+    }
+
+    public int maxLeaderboardSize() {
+        return leaderboard.size();
+    }
+
+    /**
+     * Maiores saldos, lidos do índice mantido a cada crédito.
+     */
+    public List<LeaderboardEntry> getLeaderboard(int limit) {
+        return leaderboard.top(limit);
     }
 }
@@ -0,0 +1,176 @@
+package com.faulttolerance.loadtest;
+
+import com.faulttolerance.loadtest.StandInServer.Response;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stand-ins do store, exchange e fidelity, com os mesmos endpoints usados pelo ecommerce
+ * e as falhas do {@link FaultProfile} escolhido.
+ */
+final class DownstreamStandIns implements AutoCloseable {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final FaultProfile faults;
+    private final int products;
+
+    private final AtomicLong nextOrderId = new AtomicLong(1);
+    private final AtomicLong saleErrorUntil = new AtomicLong();
+    private final AtomicBoolean exchangeCrashed = new AtomicBoolean();
+    private final AtomicLong fidelityFailureUntil = new AtomicLong();
+    private final Map<Long, Integer> bonuses = new ConcurrentHashMap<>();
+
+    private final StandInServer store;
+    private final StandInServer exchange;
+    private final StandInServer fidelity;
+
+    DownstreamStandIns(LoadTestOptions options) {
+        this.faults = options.profile();
+        this.products = options.products();
+        this.store = new StandInServer("store", options.storeLatencyMs(), options.standInThreads())
+                .route("/product/", this::product)
+                .route("/products", this::products)
+                .route("/sell", this::sell)
+                .start();
+        this.exchange = new StandInServer("exchange", options.exchangeLatencyMs(), options.standInThreads())
+                .route("/exchange", this::exchangeRate)
+                .start();
+        this.fidelity = new StandInServer("fidelity", options.fidelityLatencyMs(), options.standInThreads())
+                .route("/bonus/batch", this::bonusBatch)
+                .route("/bonus", this::bonus)
+                .start();
+    }
+
+    String storeUrl() {
+        return store.url();
+    }
+
+    String exchangeUrl() {
+        return exchange.url();
+    }
+
+    String fidelityUrl() {
+        return fidelity.url();
+    }
+
+    List<StandInServer> servers() {
+        return List.of(store, exchange, fidelity);
+    }
+
+    @Override
+    public void close() {
+        servers().forEach(StandInServer::close);
+    }
+
+    private Response product(HttpExchange request) throws Exception {
+        if (chance(faults.productOmission())) {
+            return Response.error("Fail (Omission, 0.2, 0s)");
+        }
+        long id = Long.parseLong(StandInServer.lastSegment(request.getRequestURI()));
+        if (id < 1 || id > products) {
+            return new Response(404, "text/plain", "");
+        }
+        return Response.json(objectMapper.writeValueAsString(productOf(id)));
+    }
+
+    private Response products(HttpExchange request) throws Exception {
+        if (chance(faults.productOmission())) {
+            return Response.error("Fail (Omission, 0.2, 0s)");
+        }
+        Map<String, String> query = StandInServer.query(request);
+        List<Map<String, Object>> page = new ArrayList<>();
+        if (query.containsKey("ids")) {
+            for (String id : query.get("ids").split(",")) {
+                long productId = Long.parseLong(id);
+                if (productId >= 1 && productId <= products) {
+                    page.add(productOf(productId));
+                }
+            }
+        } else {
+            int limit = Math.min(Integer.parseInt(query.getOrDefault("limit", "100")), products);
+            for (long id = 1; id <= limit; id++) {
+                page.add(productOf(id));
+            }
+        }
+        return Response.json(objectMapper.writeValueAsString(page));
+    }
+
+    private Response sell(HttpExchange request) {
+        long now = System.currentTimeMillis();
+        if (now < saleErrorUntil.get()) {
+            return Response.error("Service in error state");
+        }
+        if (chance(faults.saleError())) {
+            saleErrorUntil.set(now + faults.saleErrorStateMs());
+            return Response.error("Fail (Error, 0.1, 5s)");
+        }
+        return new Response(200, "text/plain", String.valueOf(nextOrderId.getAndIncrement()));
+    }
+
+    private Response exchangeRate(HttpExchange request) {
+        if (exchangeCrashed.get()) {
+            return Response.error("Service is crashed and not responding");
+        }
+        if (chance(faults.exchangeCrash())) {
+            exchangeCrashed.set(true);
+            return Response.error("Fail (Crash, 0.1, _) - Service crashed and will remain down");
+        }
+        return Response.json(String.valueOf(ThreadLocalRandom.current().nextDouble(0.1, 10.0)));
+    }
+
+    private Response bonus(HttpExchange request) throws InterruptedException {
+        Response failure = fidelityFailure();
+        if (failure != null) {
+            return failure;
+        }
+        Map<String, String> query = StandInServer.query(request);
+        bonuses.merge(Long.parseLong(query.get("user")), Integer.parseInt(query.get("bonus")), Integer::sum);
+        return new Response(200, "text/plain", "");
+    }
+
+    private Response bonusBatch(HttpExchange request) throws Exception {
+        List<Map<String, Object>> entries = objectMapper.readValue(request.getRequestBody(), new TypeReference<>() { });
+        Response failure = fidelityFailure();
+        if (failure != null) {
+            return failure;
+        }
+        List<Map<String, Object>> results = new ArrayList<>(entries.size());
+        for (Map<String, Object> entry : entries) {
+            long user = ((Number) entry.get("user")).longValue();
+            int total = bonuses.merge(user, ((Number) entry.get("bonus")).intValue(), Integer::sum);
+            results.add(Map.of("user", user, "applied", true, "totalBonus", total));
+        }
+        return Response.json(objectMapper.writeValueAsString(results));
+    }
+
+    private Response fidelityFailure() throws InterruptedException {
+        long now = System.currentTimeMillis();
+        if (now < fidelityFailureUntil.get()) {
+            Thread.sleep(faults.fidelityDelayMs());
+            return Response.error("Fail (Time=2s, 0.1, 30s) - Service in failure state");
+        }
+        if (chance(faults.fidelityFailure())) {
+            fidelityFailureUntil.set(now + faults.fidelityFailureStateMs());
+            Thread.sleep(faults.fidelityDelayMs());
+            return Response.error("Fail (Time=2s, 0.1, 30s) - Entering failure state");
+        }
+        return null;
+    }
+
+    private static Map<String, Object> productOf(long id) {
+        return Map.of("id", id, "name", "Product " + id, "value", 10.0 + id % 90);
+    }
+
+    private static boolean chance(double probability) {
+        return probability > 0 && ThreadLocalRandom.current().nextDouble() < probability;
+    }
+}
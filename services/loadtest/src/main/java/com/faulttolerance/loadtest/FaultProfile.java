@@ -0,0 +1,33 @@
+package com.faulttolerance.loadtest;
+
+/**
+ * Falhas injetadas pelos stand-ins. O perfil {@code spec} reproduz os serviços reais:
+ * <ul>
+ *   <li>Store {@code /product}: Omission, 20% das consultas</li>
+ *   <li>Store {@code /sell}: Error, 10% das vendas, seguido de 5s de erro</li>
+ *   <li>Exchange: Crash, 10% das consultas, e o serviço não volta mais</li>
+ *   <li>Fidelity: Time, 10% das chamadas, seguido de 30s respondendo erro após 2s</li>
+ * </ul>
+ */
+public record FaultProfile(
+    String name,
+    double productOmission,
+    double saleError,
+    long saleErrorStateMs,
+    double exchangeCrash,
+    double fidelityFailure,
+    long fidelityFailureStateMs,
+    long fidelityDelayMs
+) {
+
+    public static final FaultProfile SPEC = new FaultProfile("spec", 0.2, 0.1, 5_000, 0.1, 0.1, 30_000, 2_000);
+    public static final FaultProfile NONE = new FaultProfile("none", 0, 0, 0, 0, 0, 0, 0);
+
+    public static FaultProfile named(String name) {
+        return switch (name) {
+            case "spec" -> SPEC;
+            case "none" -> NONE;
+            default -> throw new IllegalArgumentException("Unknown fault profile: " + name + " (spec or none)");
+        };
+    }
+}
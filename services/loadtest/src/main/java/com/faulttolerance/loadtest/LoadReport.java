@@ -0,0 +1,114 @@
+package com.faulttolerance.loadtest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Relatório da execução: latência, vazão e erros por valor de {@code ft}, fallbacks do ecommerce
+ * ({@code purchase_fallbacks_total}), limite adaptativo de concorrência do /buy e chamadas recebidas por
+ * cada stand-in durante a medição.
+ */
+final class LoadReport {
+
+    private static final List<String> STAGES = List.of("product", "exchange", "sale", "bonus");
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final List<String> FT_VALUES = List.of("true", "false");
+
+    private final LoadTestOptions options;
+    private final MeterRegistry registry;
+    private final DownstreamStandIns standIns;
+    private final Map<String, Double> fallbacksAtStart = new LinkedHashMap<>();
+    private final Map<String, Double> rejectedAtStart = new LinkedHashMap<>();
+    private final Map<String, long[]> standInsAtStart = new LinkedHashMap<>();
+
+    LoadReport(LoadTestOptions options, MeterRegistry registry, DownstreamStandIns standIns) {
+        this.options = options;
+        this.registry = registry;
+        this.standIns = standIns;
+    }
+
+    /**
+     * Marca o início da medição; contadores acumulados no aquecimento ficam de fora do relatório.
+     */
+    void markMeasureStart() {
+        STAGES.forEach(stage -> fallbacksAtStart.put(stage, fallbacks(stage)));
+        FT_VALUES.forEach(ft -> rejectedAtStart.put(ft, rejected(ft)));
+        standIns.servers().forEach(server ->
+                standInsAtStart.put(server.name(), new long[] {server.requests(), server.errors()}));
+    }
+
+    void print(OpenLoopDriver driver, PrintStream out) {
+        out.printf("%nTarget rate %d/s for %ds (warmup %ds), ft-ratio %.2f, profile %s, client %s%n",
+                options.rate(), options.durationSeconds(), options.warmupSeconds(), options.ftRatio(),
+                options.profile().name(), options.clientMode());
+        if (driver.inFlight() > 0) {
+            out.printf("WARNING: %d purchases still in flight after the run were not recorded%n", driver.inFlight());
+        }
+
+        out.printf("%n%-9s %9s %10s %9s %9s %9s %9s %9s %9s %9s%n", "", "sent", "ok/s", "errors",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "sale fb");
+        for (OpenLoopDriver.Stats stats : List.of(driver.ft(), driver.noFt())) {
+            printRow(stats, out);
+        }
+        for (OpenLoopDriver.Stats stats : List.of(driver.ft(), driver.noFt())) {
+            if (!stats.errors().isEmpty()) {
+                out.printf("%nErrors ft=%s: %s%n", stats.ft(), stats.errors());
+            }
+        }
+
+        long ftPurchases = driver.ft().sent();
+        out.printf("%nFallbacks per ft=true purchase%n");
+        for (String stage : STAGES) {
+            double count = fallbacks(stage) - fallbacksAtStart.getOrDefault(stage, 0.0);
+            out.printf("  %-9s %8.0f  %6.2f%%%n", stage, count, percent(count, ftPurchases));
+        }
+
+        out.printf("%nConcurrency limit (final limit, rejected with 503)%n");
+        for (String ft : FT_VALUES) {
+            Gauge limit = registry.find("purchase.concurrency.limit").tag("ft", ft).gauge();
+            double rejected = rejected(ft) - rejectedAtStart.getOrDefault(ft, 0.0);
+            out.printf("  ft=%-6s %8.0f  rejected %8.0f%n", ft, limit == null ? 0 : limit.value(), rejected);
+        }
+
+        out.printf("%nStand-in calls%n");
+        for (StandInServer server : standIns.servers()) {
+            long[] start = standInsAtStart.getOrDefault(server.name(), new long[2]);
+            long requests = server.requests() - start[0];
+            long errors = server.errors() - start[1];
+            out.printf("  %-9s %8d  errors %6.2f%%%n", server.name(), requests, percent(errors, requests));
+        }
+    }
+
+    private void printRow(OpenLoopDriver.Stats stats, PrintStream out) {
+        Histogram latency = stats.latencyMicros();
+        long errors = stats.errors().values().stream().mapToLong(Long::longValue).sum();
+        out.printf("%-9s %9d %10.1f %8.2f%%", "ft=" + stats.ft(), stats.sent(),
+                stats.succeeded() / (double) options.durationSeconds(), percent(errors, stats.sent()));
+        for (double percentile : PERCENTILES) {
+            out.printf(" %9.2f", latency.getValueAtPercentile(percentile) / 1000.0);
+        }
+        out.printf(" %9.2f %8.2f%%%n", latency.getMaxValue() / 1000.0,
+                percent(stats.saleFallbacks(), stats.sent()));
+    }
+
+    private double fallbacks(String stage) {
+        Counter counter = registry.find("purchase.fallbacks").tag("stage", stage).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private double rejected(String ft) {
+        Counter counter = registry.find("purchase.concurrency.rejected").tag("ft", ft).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static double percent(double part, double total) {
+        return total == 0 ? 0 : 100.0 * part / total;
+    }
+}
@@ -0,0 +1,73 @@
+package com.faulttolerance.loadtest;
+
+import com.faulttolerance.ecommerce.EcommerceApplication;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Teste de carga do ecommerce em um único processo, sem rede: sobe os stand-ins do store, exchange
+ * e fidelity em portas de loopback, inicia o ecommerce apontando para eles e dispara {@code POST /buy}
+ * em taxa fixa.
+ * <p>
+ * Exemplo: {@code java -jar loadtest-1.0.0-exec.jar --rate=500 --duration=60 --ft-ratio=0.5 --profile=spec}
+ */
+public class LoadTestApplication {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        Path outbox = Files.createTempDirectory("loadtest-outbox-");
+
+        try (DownstreamStandIns standIns = new DownstreamStandIns(options);
+             ConfigurableApplicationContext ecommerce = startEcommerce(options, standIns, outbox)) {
+            int port = ecommerce.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            LoadReport report = new LoadReport(options, ecommerce.getBean(MeterRegistry.class), standIns);
+
+            System.out.printf("ecommerce on port %d; store %s, exchange %s, fidelity %s%n", port,
+                    standIns.storeUrl(), standIns.exchangeUrl(), standIns.fidelityUrl());
+            try (OpenLoopDriver driver = new OpenLoopDriver(options, port)) {
+                driver.run(report::markMeasureStart);
+                report.print(driver, System.out);
+            }
+        } finally {
+            delete(outbox);
+        }
+    }
+
+    private static ConfigurableApplicationContext startEcommerce(LoadTestOptions options, DownstreamStandIns standIns,
+                                                                 Path outbox) {
+        List<String> args = List.of(
+                "--server.port=0",
+                "--store.url=" + standIns.storeUrl(),
+                "--exchange.url=" + standIns.exchangeUrl(),
+                "--fidelity.url=" + standIns.fidelityUrl(),
+                "--downstream.client.mode=" + options.clientMode(),
+                "--outbox.directory=" + outbox,
+                // O ecommerce não usa o MongoDB; sem as auto-configurações ele não tenta conectar
+                "--spring.autoconfigure.exclude="
+                        + "org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration,"
+                        + "org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration,"
+                        + "org.springframework.boot.actuate.autoconfigure.data.mongo.MongoHealthContributorAutoConfiguration,"
+                        + "org.springframework.boot.actuate.autoconfigure.data.mongo.MongoReactiveHealthContributorAutoConfiguration",
+                // Avisos por compra já são amostrados; acima disso o log distorceria a medição
+                "--logging.level.root=WARN",
+                "--logging.level.org.apache.catalina.loader=ERROR",
+                "--spring.main.banner-mode=off");
+        return SpringApplication.run(EcommerceApplication.class, args.toArray(String[]::new));
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
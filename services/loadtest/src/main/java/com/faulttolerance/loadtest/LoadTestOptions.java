@@ -0,0 +1,70 @@
+package com.faulttolerance.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Opções da linha de comando, no formato {@code --chave=valor}.
+ */
+public record LoadTestOptions(
+    int rate,                // compras por segundo, somando ft=true e ft=false
+    int durationSeconds,     // duração da medição
+    int warmupSeconds,       // carga descartada antes da medição
+    double ftRatio,          // fração das compras com ft=true
+    int products,            // tamanho do catálogo do store simulado
+    int users,               // usuários distintos sorteados nas compras
+    FaultProfile profile,    // falhas dos stand-ins: spec ou none
+    int storeLatencyMs,      // latência base de cada stand-in
+    int exchangeLatencyMs,
+    int fidelityLatencyMs,
+    int standInThreads,      // threads por stand-in (o Tomcat dos serviços usa 200)
+    int maxInFlight,         // compras em andamento antes de o gerador descartar envios
+    String clientMode        // downstream.client.mode do ecommerce: blocking ou async
+) {
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Invalid option: " + arg + " (expected --key=value)");
+            }
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        LoadTestOptions options = new LoadTestOptions(
+                integer(values, "rate", 200),
+                integer(values, "duration", 60),
+                integer(values, "warmup", 10),
+                Double.parseDouble(take(values, "ft-ratio", "0.5")),
+                integer(values, "products", 1000),
+                integer(values, "users", 10000),
+                FaultProfile.named(take(values, "profile", "spec")),
+                integer(values, "store-latency-ms", 2),
+                integer(values, "exchange-latency-ms", 2),
+                integer(values, "fidelity-latency-ms", 2),
+                integer(values, "stand-in-threads", 200),
+                integer(values, "max-in-flight", 10000),
+                take(values, "client-mode", "blocking"));
+
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        }
+        if (options.rate <= 0 || options.durationSeconds <= 0) {
+            throw new IllegalArgumentException("rate and duration must be positive");
+        }
+        if (options.ftRatio < 0 || options.ftRatio > 1) {
+            throw new IllegalArgumentException("ft-ratio must be between 0 and 1");
+        }
+        return options;
+    }
+
+    private static int integer(Map<String, String> values, String key, int defaultValue) {
+        return Integer.parseInt(take(values, key, String.valueOf(defaultValue)));
+    }
+
+    private static String take(Map<String, String> values, String key, String defaultValue) {
+        String value = values.remove(key);
+        return value == null ? defaultValue : value;
+    }
+}
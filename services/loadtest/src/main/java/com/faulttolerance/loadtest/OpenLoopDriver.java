@@ -0,0 +1,203 @@
+package com.faulttolerance.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Pattern;
+
+/**
+ * Gerador open-loop do {@code POST /buy}.
+ * <p>
+ * As compras são disparadas em horários fixos, derivados da taxa alvo, sem esperar as respostas
+ * anteriores. A latência é medida a partir do horário planejado de envio, e não do envio efetivo,
+ * para que atrasos do próprio gerador ou do servidor não escondam a fila (coordinated omission).
+ * Compras planejadas durante o aquecimento são descartadas.
+ */
+final class OpenLoopDriver implements AutoCloseable {
+
+    // Venda com fallback devolve um UUID; o store devolve o id numérico do pedido
+    private static final Pattern ORDER_ID = Pattern.compile("\"transactionId\"\\s*:\\s*\"\\d+\"");
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final LoadTestOptions options;
+    private final URI buyUri;
+    private final ExecutorService responseExecutor;
+    private final HttpClient client;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final Stats warmupFt = new Stats(true);
+    private final Stats warmupNoFt = new Stats(false);
+    private final Stats ft = new Stats(true);
+    private final Stats noFt = new Stats(false);
+
+    OpenLoopDriver(LoadTestOptions options, int ecommercePort) {
+        this.options = options;
+        this.buyUri = URI.create("http://127.0.0.1:" + ecommercePort + "/buy");
+        this.responseExecutor = Executors.newFixedThreadPool(
+                Math.max(4, Runtime.getRuntime().availableProcessors()),
+                new CustomizableThreadFactory("loadtest-client-"));
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(responseExecutor)
+                .build();
+    }
+
+    /**
+     * Executa aquecimento e medição, bloqueando até a última compra planejada ser enviada
+     * e todas as respostas chegarem (ou expirarem).
+     *
+     * @param onMeasureStart chamado quando termina o aquecimento e começa a medição
+     */
+    void run(Runnable onMeasureStart) throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate();
+        long start = System.nanoTime();
+        long measureStart = start + TimeUnit.SECONDS.toNanos(options.warmupSeconds());
+        long end = measureStart + TimeUnit.SECONDS.toNanos(options.durationSeconds());
+        boolean measuring = options.warmupSeconds() == 0;
+        if (measuring) {
+            onMeasureStart.run();
+        }
+
+        for (long sequence = 0; ; sequence++) {
+            long intended = start + sequence * intervalNanos;
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (!measuring && intended >= measureStart) {
+                measuring = true;
+                onMeasureStart.run();
+            }
+            boolean withFt = ThreadLocalRandom.current().nextDouble() < options.ftRatio();
+            Stats stats = measuring ? (withFt ? ft : noFt) : (withFt ? warmupFt : warmupNoFt);
+            send(withFt, intended, stats);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    Stats ft() {
+        return ft;
+    }
+
+    Stats noFt() {
+        return noFt;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public void close() {
+        responseExecutor.shutdownNow();
+    }
+
+    private void send(boolean withFt, long intended, Stats stats) {
+        stats.sent.increment();
+        if (inFlight.get() >= options.maxInFlight()) {
+            // O gerador não acompanha: a compra conta como erro em vez de atrasar as seguintes
+            stats.error("dropped");
+            return;
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String body = "{\"userId\":" + random.nextInt(1, options.users() + 1)
+                + ",\"productId\":" + random.nextInt(1, options.products() + 1)
+                + ",\"ft\":" + withFt + "}";
+        HttpRequest request = HttpRequest.newBuilder(buyUri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+
+        inFlight.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, e) -> {
+            inFlight.decrementAndGet();
+            stats.record(System.nanoTime() - intended);
+            if (e != null) {
+                stats.error(e.getCause() != null ? e.getCause().getClass().getSimpleName() : e.getClass().getSimpleName());
+            } else if (response.statusCode() != 200) {
+                stats.error(String.valueOf(response.statusCode()));
+            } else {
+                stats.succeeded.increment();
+                if (!ORDER_ID.matcher(response.body()).find()) {
+                    stats.saleFallbacks.increment();
+                }
+            }
+        });
+    }
+
+    /**
+     * Resultado das compras de um valor de {@code ft}.
+     */
+    static final class Stats {
+        private final boolean ft;
+        private final Histogram latency = new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3);
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder saleFallbacks = new LongAdder();
+        private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+        private Stats(boolean ft) {
+            this.ft = ft;
+        }
+
+        private void record(long nanos) {
+            latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_LATENCY_MICROS));
+        }
+
+        private void error(String reason) {
+            errors.computeIfAbsent(reason, r -> new LongAdder()).increment();
+        }
+
+        boolean ft() {
+            return ft;
+        }
+
+        Histogram latencyMicros() {
+            return latency;
+        }
+
+        long sent() {
+            return sent.sum();
+        }
+
+        long succeeded() {
+            return succeeded.sum();
+        }
+
+        long saleFallbacks() {
+            return saleFallbacks.sum();
+        }
+
+        Map<String, Long> errors() {
+            Map<String, Long> snapshot = new TreeMap<>();
+            errors.forEach((reason, count) -> snapshot.put(reason, count.sum()));
+            return snapshot;
+        }
+    }
+}
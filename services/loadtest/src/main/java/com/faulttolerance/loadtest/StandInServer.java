@@ -0,0 +1,151 @@
+package com.faulttolerance.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Servidor HTTP em loopback, numa porta livre, que faz o papel de um serviço downstream.
+ * Cada requisição espera a latência base configurada antes de ser atendida.
+ */
+final class StandInServer implements AutoCloseable {
+
+    @FunctionalInterface
+    interface Handler {
+        Response handle(HttpExchange exchange) throws Exception;
+    }
+
+    record Response(int status, String contentType, String body) {
+        static Response json(String body) {
+            return new Response(200, "application/json", body);
+        }
+
+        static Response error(String message) {
+            return new Response(500, "text/plain", message);
+        }
+    }
+
+    private final String name;
+    private final long latencyMs;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    StandInServer(String name, long latencyMs, int threads) {
+        this.name = name;
+        this.latencyMs = latencyMs;
+        this.executor = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory(name + "-stand-in-"));
+        try {
+            this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start " + name + " stand-in", e);
+        }
+        server.setExecutor(executor);
+    }
+
+    StandInServer route(String path, Handler handler) {
+        server.createContext(path, exchange -> serve(exchange, handler));
+        return this;
+    }
+
+    StandInServer start() {
+        server.start();
+        return this;
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    String name() {
+        return name;
+    }
+
+    long requests() {
+        return requests.sum();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int separator = pair.indexOf('=');
+                if (separator > 0) {
+                    params.put(pair.substring(0, separator), pair.substring(separator + 1));
+                }
+            }
+        }
+        return params;
+    }
+
+    static String lastSegment(URI uri) {
+        String path = uri.getPath();
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void serve(HttpExchange exchange, Handler handler) throws IOException {
+        Response response;
+        try {
+            if (latencyMs > 0) {
+                Thread.sleep(latencyMs);
+            }
+            response = handler.handle(exchange);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.close();
+            return;
+        } catch (Exception e) {
+            response = Response.error(String.valueOf(e.getMessage()));
+        }
+        requests.increment();
+        if (response.status() >= 500) {
+            errors.increment();
+        }
+        // Corpo não lido pelo handler precisa ser consumido para a conexão continuar keep-alive
+        exchange.getRequestBody().readAllBytes();
+        write(exchange, response);
+    }
+
+    private static void write(HttpExchange exchange, Response response) throws IOException {
+        byte[] body = response.body().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", response.contentType());
+        exchange.sendResponseHeaders(response.status(), body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+        exchange.close();
+    }
+}
@@ -0,0 +1,225 @@
+package com.faulttolerance.store.catalog;
+
+import com.faulttolerance.store.model.Product;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Catálogo imutável em arrays primitivos, sem {@code Long} nem {@code BigDecimal} por produto.
+ * <p>
+ * Os produtos ficam em colunas paralelas (id, preço em centavos, posição do nome) na ordem de
+ * carga, e os nomes em um único arena de bytes UTF-8. O índice por id é uma tabela de
+ * endereçamento aberto de {@code int} que aponta para a linha do produto. Objetos {@link Product}
+ * só são criados na leitura.
+ */
+public final class ProductCatalog {
+    private static final int EMPTY = -1;
+
+    private final int size;
+    private final long[] ids;
+    private final long[] priceCents;
+    private final int[] nameOffsets;
+    private final short[] nameLengths;
+    private final byte[] names;
+    private final int[] table;
+    private final int mask;
+
+    private ProductCatalog(Builder builder) {
+        this.size = builder.size;
+        this.ids = Arrays.copyOf(builder.ids, size);
+        this.priceCents = Arrays.copyOf(builder.priceCents, size);
+        this.nameOffsets = Arrays.copyOf(builder.nameOffsets, size);
+        this.nameLengths = Arrays.copyOf(builder.nameLengths, size);
+        this.names = Arrays.copyOf(builder.names, builder.namesLength);
+        this.table = builder.table;
+        this.mask = builder.mask;
+    }
+
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    /**
+     * Carrega linhas {@code id,nome,preço} uma a uma, sem manter o arquivo em memória.
+     * Linhas vazias, comentários ({@code #}) e um cabeçalho não numérico são ignorados.
+     */
+    public static ProductCatalog load(BufferedReader reader, int expectedSize) throws IOException {
+        Builder builder = builder(expectedSize);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            int first = line.indexOf(',');
+            int last = line.lastIndexOf(',');
+            if (first < 0 || first == last) {
+                throw new IllegalArgumentException("Malformed catalog line " + lineNumber + ": " + line);
+            }
+            String id = line.substring(0, first).trim();
+            if (lineNumber == 1 && !Character.isDigit(id.isEmpty() ? ' ' : id.charAt(0))) {
+                continue;
+            }
+            BigDecimal price = new BigDecimal(line.substring(last + 1).trim()).setScale(2, RoundingMode.HALF_UP);
+            builder.add(Long.parseLong(id), line.substring(first + 1, last).trim(), price.unscaledValue().longValueExact());
+        }
+        return builder.build();
+    }
+
+    public Product get(long id) {
+        int row = find(id);
+        return row == EMPTY ? null : product(row);
+    }
+
+    public boolean contains(long id) {
+        return find(id) != EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Percorre os produtos na ordem de carga a partir de {@code offset}.
+     */
+    public void forEach(int offset, int limit, Consumer<Product> consumer) {
+        int end = (int) Math.min(size, (long) Math.max(offset, 0) + Math.max(limit, 0));
+        for (int row = Math.max(offset, 0); row < end; row++) {
+            consumer.accept(product(row));
+        }
+    }
+
+    /**
+     * Memória ocupada pelos arrays do catálogo, em bytes (sem cabeçalhos de objeto).
+     */
+    public long footprintBytes() {
+        return (long) ids.length * Long.BYTES + (long) priceCents.length * Long.BYTES
+                + (long) nameOffsets.length * Integer.BYTES + (long) nameLengths.length * Short.BYTES
+                + names.length + (long) table.length * Integer.BYTES;
+    }
+
+    private int find(long id) {
+        int slot = hash(id) & mask;
+        while (true) {
+            int row = table[slot];
+            if (row == EMPTY || ids[row] == id) {
+                return row;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private Product product(int row) {
+        String name = new String(names, nameOffsets[row], nameLengths[row] & 0xFFFF, StandardCharsets.UTF_8);
+        return new Product(ids[row], name, BigDecimal.valueOf(priceCents[row], 2));
+    }
+
+    private static int hash(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    public static final class Builder {
+        private int size;
+        private long[] ids;
+        private long[] priceCents;
+        private int[] nameOffsets;
+        private short[] nameLengths;
+        private byte[] names;
+        private int namesLength;
+        private int[] table;
+        private int mask;
+
+        private Builder(int expectedSize) {
+            int capacity = Math.max(expectedSize, 16);
+            this.ids = new long[capacity];
+            this.priceCents = new long[capacity];
+            this.nameOffsets = new int[capacity];
+            this.nameLengths = new short[capacity];
+            this.names = new byte[capacity * 16];
+            allocateTable(capacity);
+        }
+
+        /**
+         * Adiciona um produto; um id repetido substitui nome e preço do anterior.
+         */
+        public Builder add(long id, String name, long priceCents) {
+            byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+            if (encoded.length > 0xFFFF) {
+                throw new IllegalArgumentException("Product name too long: id=" + id);
+            }
+            int row = findOrInsert(id);
+            ensureNameCapacity(encoded.length);
+            System.arraycopy(encoded, 0, names, namesLength, encoded.length);
+            nameOffsets[row] = namesLength;
+            nameLengths[row] = (short) encoded.length;
+            namesLength += encoded.length;
+            this.priceCents[row] = priceCents;
+            return this;
+        }
+
+        public ProductCatalog build() {
+            return new ProductCatalog(this);
+        }
+
+        private int findOrInsert(long id) {
+            int slot = hash(id) & mask;
+            while (table[slot] != EMPTY) {
+                if (ids[table[slot]] == id) {
+                    return table[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (size == ids.length) {
+                growRows();
+            }
+            int row = size++;
+            ids[row] = id;
+            table[slot] = row;
+            // Fator de carga máximo de 0,5
+            if (size * 2 > table.length) {
+                allocateTable(table.length);
+                for (int r = 0; r < size; r++) {
+                    int s = hash(ids[r]) & mask;
+                    while (table[s] != EMPTY) {
+                        s = (s + 1) & mask;
+                    }
+                    table[s] = r;
+                }
+            }
+            return row;
+        }
+
+        private void allocateTable(int rows) {
+            int capacity = Integer.highestOneBit(Math.max(rows, 8) * 2 - 1) << 1;
+            table = new int[capacity];
+            Arrays.fill(table, EMPTY);
+            mask = capacity - 1;
+        }
+
+        private void growRows() {
+            int capacity = ids.length + (ids.length >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            priceCents = Arrays.copyOf(priceCents, capacity);
+            nameOffsets = Arrays.copyOf(nameOffsets, capacity);
+            nameLengths = Arrays.copyOf(nameLengths, capacity);
+        }
+
+        private void ensureNameCapacity(int extra) {
+            if (namesLength + extra > names.length) {
+                long capacity = Math.max((long) names.length + (names.length >> 1), (long) namesLength + extra);
+                if (capacity > Integer.MAX_VALUE - 8) {
+                    throw new IllegalStateException("Catalog name arena exceeds 2 GB");
+                }
+                names = Arrays.copyOf(names, (int) capacity);
+            }
+        }
+    }
+}
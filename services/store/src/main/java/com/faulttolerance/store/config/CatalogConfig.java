@@ -0,0 +1,45 @@
+package com.faulttolerance.store.config;
+
+import com.faulttolerance.store.catalog.ProductCatalog;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+@Configuration
+public class CatalogConfig {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogConfig.class);
+
+    @Bean
+    public ProductCatalog productCatalog(ResourceLoader resourceLoader,
+                                         MeterRegistry registry,
+                                         @Value("${catalog.file:classpath:catalog.csv}") String location,
+                                         @Value("${catalog.expected-size:1024}") int expectedSize) throws IOException {
+        long start = System.nanoTime();
+        ProductCatalog catalog;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                resourceLoader.getResource(location).getInputStream(), StandardCharsets.UTF_8), 1 << 16)) {
+            catalog = ProductCatalog.load(reader, expectedSize);
+        }
+        logger.info("Catalog loaded from {}: products={}, bytes={}, ms={}",
+            location, catalog.size(), catalog.footprintBytes(), (System.nanoTime() - start) / 1_000_000);
+
+        Gauge.builder("store.catalog.products", catalog, ProductCatalog::size)
+                .description("Products loaded in the catalog")
+                .register(registry);
+        Gauge.builder("store.catalog.memory", catalog, ProductCatalog::footprintBytes)
+                .description("Memory held by the catalog arrays")
+                .baseUnit("bytes")
+                .register(registry);
+        return catalog;
+    }
+}
@@ -0,0 +1,35 @@
+package com.faulttolerance.store.config;
+
+import com.faulttolerance.store.order.BlockOrderIdAllocator;
+import com.faulttolerance.store.order.FileLeaseStore;
+import com.faulttolerance.store.order.OrderIdAllocator;
+import com.faulttolerance.store.order.TimeOrderedIdAllocator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+@Configuration
+public class OrderIdConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "order-id.mode", havingValue = "block", matchIfMissing = true)
+    public OrderIdAllocator blockOrderIdAllocator(@Value("${order-id.lease-file:data/order-id.lease}") String leaseFile,
+                                                  @Value("${order-id.block-size:1000}") int blockSize) {
+        return new BlockOrderIdAllocator(new FileLeaseStore(Paths.get(leaseFile)), blockSize);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "order-id.mode", havingValue = "time")
+    public OrderIdAllocator timeOrderedIdAllocator(@Value("${order-id.node-id:}") String nodeId,
+                                                   @Value("${order-id.high-water-file:data/order-id.high-water}") String highWaterFile) {
+        // Sem default: réplicas que herdassem o mesmo nó gerariam ids repetidos
+        if (nodeId.isBlank()) {
+            throw new IllegalStateException(
+                    "order-id.node-id (NODE_ID) must be set to a distinct value per replica when order-id.mode=time");
+        }
+        return new TimeOrderedIdAllocator(Long.parseLong(nodeId.trim()), new FileLeaseStore(Paths.get(highWaterFile)));
+    }
+}
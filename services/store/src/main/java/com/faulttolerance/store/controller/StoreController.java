@@ -1,47 +1,105 @@
 package com.faulttolerance.store.controller;
 
+import com.faulttolerance.store.inventory.OutOfStockException;
 import com.faulttolerance.store.model.Product;
 import com.faulttolerance.store.service.ProductService;
 import com.faulttolerance.store.service.SaleService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @Tag(name = "Store", description = "Store operations API")
 public class StoreController {
+    private static final int MAX_BULK_IDS = 1000;
+
     private final ProductService productService;
     private final SaleService saleService;
+    private final ObjectMapper objectMapper;
 
-    public StoreController(ProductService productService, SaleService saleService) {
+    public StoreController(ProductService productService, SaleService saleService, ObjectMapper objectMapper) {
         this.productService = productService;
         this.saleService = saleService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/product/{id}")
-    public ResponseEntity<Product> getProduct(@PathVariable Long id) {
-        try {
-            Product product = productService.getProduct(id);
+    public CompletableFuture<ResponseEntity<Product>> getProduct(@PathVariable Long id) {
+        return productService.getProduct(id).handle((product, e) -> {
+            if (e != null) {
+                return ResponseEntity.status(500).build();
+            }
             if (product == null) {
                 return ResponseEntity.notFound().build();
             }
             return ResponseEntity.ok(product);
-        } catch (RuntimeException e) {
-            return ResponseEntity.status(500).build();
+        });
+    }
+
+    @GetMapping(value = "/products", params = "ids")
+    public CompletableFuture<ResponseEntity<List<Product>>> getProducts(@RequestParam List<Long> ids) {
+        if (ids.size() > MAX_BULK_IDS) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
+        return productService.getProducts(ids).handle((products, e) ->
+                e != null ? ResponseEntity.status(500).build() : ResponseEntity.ok(products));
+    }
+
+    @GetMapping("/products")
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> getProducts(
+            @RequestParam(defaultValue = "0") int offset, @RequestParam(defaultValue = "1000") int limit) {
+        return productService.checkAvailable().handle((ignored, e) ->
+                e != null ? ResponseEntity.status(500).build() : streamProducts(offset, limit));
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamProducts(int offset, int limit) {
+        // Página escrita produto a produto, sem montar a lista inteira em memória
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                productService.forEachProduct(offset, limit, product -> {
+                    try {
+                        generator.writeObject(product);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     @PostMapping("/sell")
-    public ResponseEntity<Long> processSale(@RequestParam Long product) {
-        try {
-            return ResponseEntity.ok(saleService.processSale(product));
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.notFound().build();
-        } catch (IllegalStateException e) {
-            return ResponseEntity.badRequest().build();
-        } catch (RuntimeException e) {
+    public CompletableFuture<ResponseEntity<Long>> processSale(@RequestParam Long product) {
+        return saleService.processSale(product).handle((orderId, e) -> {
+            Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+            if (cause == null) {
+                return ResponseEntity.ok(orderId);
+            } else if (cause instanceof OutOfStockException) {
+                return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, cause.getMessage())).build();
+            } else if (cause instanceof RejectedExecutionException) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            } else if (cause instanceof IllegalArgumentException) {
+                return ResponseEntity.notFound().build();
+            } else if (cause instanceof IllegalStateException) {
+                return ResponseEntity.badRequest().build();
+            }
             return ResponseEntity.status(500).build();
-        }
+        });
     }
 }
@@ -0,0 +1,73 @@
+package com.faulttolerance.store.inventory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Estoque por produto com reserva, confirmação e liberação atômicas e sem locks.
+ * O estoque de um produto é criado na primeira venda com {@code inventory.initial-stock} unidades e
+ * vive só em memória: não há reposição, e cada reinício do store volta todos os produtos ao estoque inicial.
+ */
+@Service
+public class InventoryService {
+    private final Map<Long, StripedStock> stocks = new ConcurrentHashMap<>();
+    private final AtomicInteger gauges = new AtomicInteger();
+    private final MeterRegistry registry;
+    private final long initialStock;
+    private final int stripes;
+    private final int gaugeLimit;
+
+    public InventoryService(MeterRegistry registry,
+                            @Value("${inventory.initial-stock:10000}") long initialStock,
+                            @Value("${inventory.stripes:8}") int stripes,
+                            @Value("${inventory.gauge-limit:1000}") int gaugeLimit) {
+        this.registry = registry;
+        this.initialStock = initialStock;
+        this.stripes = stripes;
+        this.gaugeLimit = gaugeLimit;
+    }
+
+    public Reservation reserve(long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        if (!stock(productId).tryReserve(quantity)) {
+            throw new OutOfStockException(productId);
+        }
+        return new Reservation(productId, quantity);
+    }
+
+    public void commit(Reservation reservation) {
+        stock(reservation.productId()).commit(reservation.quantity());
+    }
+
+    public void release(Reservation reservation) {
+        stock(reservation.productId()).release(reservation.quantity());
+    }
+
+    public long available(long productId) {
+        return stock(productId).available();
+    }
+
+    private StripedStock stock(long productId) {
+        return stocks.computeIfAbsent(productId, this::newStock);
+    }
+
+    private StripedStock newStock(long productId) {
+        StripedStock stock = new StripedStock(initialStock, stripes);
+        // Limita a cardinalidade da métrica em catálogos grandes
+        if (gauges.getAndIncrement() < gaugeLimit) {
+            Gauge.builder("store.product.inventory", stock, StripedStock::available)
+                    .description("Units available for sale")
+                    .tag("product", Long.toString(productId))
+                    .register(registry);
+        }
+        return stock;
+    }
+}
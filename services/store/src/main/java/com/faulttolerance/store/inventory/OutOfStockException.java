@@ -0,0 +1,14 @@
+package com.faulttolerance.store.inventory;
+
+public class OutOfStockException extends RuntimeException {
+    private final long productId;
+
+    public OutOfStockException(long productId) {
+        super("Product " + productId + " is out of stock");
+        this.productId = productId;
+    }
+
+    public long getProductId() {
+        return productId;
+    }
+}
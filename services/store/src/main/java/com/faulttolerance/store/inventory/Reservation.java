@@ -0,0 +1,3 @@
+package com.faulttolerance.store.inventory;
+
+public record Reservation(long productId, int quantity) {}
@@ -0,0 +1,125 @@
+package com.faulttolerance.store.inventory;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estoque de um produto dividido em células independentes, para que vendas concorrentes do mesmo
+ * produto não disputem um único contador.
+ * <p>
+ * Cada thread começa pela sua célula. Quando ela esvazia, a thread pega metade do saldo de outra
+ * célula e traz o excedente para a sua, rebalanceando o estoque na direção de quem está vendendo.
+ * Todas as transições são CAS; nenhuma unidade é criada ou perdida. Enquanto uma parcela está em
+ * trânsito entre células, uma reserva pode falhar mesmo com estoque total suficiente.
+ */
+final class StripedStock {
+    // 8 longs = 64 bytes: cada célula em sua própria linha de cache
+    private static final int PAD = 8;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+    private final LongAdder reserved = new LongAdder();
+    private final LongAdder sold = new LongAdder();
+
+    StripedStock(long initialStock, int stripes) {
+        int count = Integer.highestOneBit(Math.max(stripes, 1) * 2 - 1);
+        this.cells = new AtomicLongArray(count * PAD);
+        this.mask = count - 1;
+        for (int stripe = 0; stripe < count; stripe++) {
+            cells.set(stripe * PAD, initialStock / count + (stripe < initialStock % count ? 1 : 0));
+        }
+    }
+
+    boolean tryReserve(int quantity) {
+        int home = homeStripe();
+        if (take(home, quantity, quantity, home)) {
+            reserved.add(quantity);
+            return true;
+        }
+        for (int i = 1; i <= mask; i++) {
+            int stripe = (home + i) & mask;
+            if (take(stripe, quantity, Long.MAX_VALUE, home)) {
+                reserved.add(quantity);
+                return true;
+            }
+        }
+        if (gather(quantity, home)) {
+            reserved.add(quantity);
+            return true;
+        }
+        return false;
+    }
+
+    void commit(int quantity) {
+        reserved.add(-quantity);
+        sold.add(quantity);
+    }
+
+    void release(int quantity) {
+        reserved.add(-quantity);
+        cells.getAndAdd(homeStripe() * PAD, quantity);
+    }
+
+    long available() {
+        long total = 0;
+        for (int stripe = 0; stripe <= mask; stripe++) {
+            total += cells.get(stripe * PAD);
+        }
+        return total;
+    }
+
+    long reserved() {
+        return reserved.sum();
+    }
+
+    long sold() {
+        return sold.sum();
+    }
+
+    /**
+     * Retira {@code quantity} da célula; com {@code maxMove} maior que a quantidade, retira também
+     * metade do saldo restante e a deposita na célula {@code home}.
+     */
+    private boolean take(int stripe, int quantity, long maxMove, int home) {
+        int index = stripe * PAD;
+        long value;
+        while ((value = cells.get(index)) >= quantity) {
+            long moved = Math.min(maxMove, Math.max(quantity, value / 2));
+            if (cells.compareAndSet(index, value, value - moved)) {
+                if (moved > quantity) {
+                    cells.getAndAdd(home * PAD, moved - quantity);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Nenhuma célula sozinha tem a quantidade: junta parcelas de várias e devolve tudo se não bastar.
+     */
+    private boolean gather(int quantity, int home) {
+        long remaining = quantity;
+        for (int stripe = 0; stripe <= mask && remaining > 0; stripe++) {
+            int index = stripe * PAD;
+            long value;
+            while ((value = cells.get(index)) > 0) {
+                long part = Math.min(value, remaining);
+                if (cells.compareAndSet(index, value, value - part)) {
+                    remaining -= part;
+                    break;
+                }
+            }
+        }
+        if (remaining > 0) {
+            cells.getAndAdd(home * PAD, quantity - remaining);
+            return false;
+        }
+        return true;
+    }
+
+    private int homeStripe() {
+        long id = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return (int) (id >>> 32) & mask;
+    }
+}
@@ -0,0 +1,156 @@
+package com.faulttolerance.store.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Arquivo append-only do journal: registros de tamanho fixo
+ * {@code [orderId:8][productId:8][quantity:4][timestamp:8][crc:4]}, a posição do registro é a sua sequência.
+ * <p>
+ * Os registros de um lote são montados em um buffer reaproveitado e gravados com uma única escrita.
+ * Na abertura, registros incompletos ou com CRC inválido no fim do arquivo (um lote interrompido por
+ * um crash) são descartados.
+ */
+final class JournalFile implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(JournalFile.class);
+    static final int RECORD_BYTES = 32;
+    private static final int PAYLOAD_BYTES = RECORD_BYTES - Integer.BYTES;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final ByteBuffer batch;
+    // Janela reaproveitada para o CRC, para a montagem do lote não alocar
+    private final ByteBuffer view;
+    private final CRC32 crc = new CRC32();
+    // Escrito só pelo flusher; volatile porque a thread dos destinos e as métricas leem
+    private volatile long records;
+
+    JournalFile(Path path, int batchSize) throws IOException {
+        this.path = path;
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.batch = ByteBuffer.allocateDirect(batchSize * RECORD_BYTES);
+        this.view = batch.duplicate();
+        recover();
+    }
+
+    /**
+     * Acrescenta uma venda ao lote em montagem.
+     */
+    void put(long orderId, long productId, int quantity, long timestamp) {
+        int start = batch.position();
+        batch.putLong(orderId).putLong(productId).putInt(quantity).putLong(timestamp);
+        batch.putInt(checksum(batch, start));
+    }
+
+    /**
+     * Vendas montadas e ainda não gravadas.
+     */
+    int pending() {
+        return batch.position() / RECORD_BYTES;
+    }
+
+    /**
+     * Grava o lote em montagem. Se a escrita falhar, o lote continua pendente para a próxima tentativa.
+     */
+    void write(boolean fsync) throws IOException {
+        if (batch.position() == 0) {
+            return;
+        }
+        long offset = records * RECORD_BYTES;
+        batch.flip();
+        try {
+            while (batch.hasRemaining()) {
+                channel.write(batch, offset + batch.position());
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            batch.position(batch.limit()).limit(batch.capacity());
+            throw e;
+        }
+        records += batch.limit() / RECORD_BYTES;
+        batch.clear();
+    }
+
+    /**
+     * Vendas gravadas no arquivo.
+     */
+    long records() {
+        return records;
+    }
+
+    /**
+     * Até {@code max} vendas gravadas, a partir da sequência {@code from}.
+     */
+    List<SaleRecord> read(long from, int max) throws IOException {
+        int count = (int) Math.min(max, records - from);
+        if (count <= 0) {
+            return List.of();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(count * RECORD_BYTES);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, from * RECORD_BYTES + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of sales journal " + path);
+            }
+        }
+        buffer.flip();
+        List<SaleRecord> sales = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sales.add(new SaleRecord(from + i, buffer.getLong(), buffer.getLong(), buffer.getInt(), buffer.getLong()));
+            buffer.getInt();
+        }
+        return sales;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void recover() throws IOException {
+        long size = channel.size();
+        long count = size / RECORD_BYTES;
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+        while (count > 0 && !valid(count - 1, record)) {
+            count--;
+        }
+        if (count * RECORD_BYTES != size) {
+            logger.warn("Truncating torn tail of sales journal {}: {} bytes discarded", path, size - count * RECORD_BYTES);
+            channel.truncate(count * RECORD_BYTES);
+            channel.force(true);
+        }
+        records = count;
+        logger.info("Sales journal {} opened with {} sales", path, records);
+    }
+
+    private boolean valid(long sequence, ByteBuffer record) throws IOException {
+        record.clear();
+        while (record.hasRemaining()) {
+            if (channel.read(record, sequence * RECORD_BYTES + record.position()) < 0) {
+                return false;
+            }
+        }
+        return record.getInt(PAYLOAD_BYTES) == checksum(record, 0);
+    }
+
+    private int checksum(ByteBuffer buffer, int start) {
+        ByteBuffer window = buffer == batch ? view : buffer.duplicate();
+        window.limit(start + PAYLOAD_BYTES).position(start);
+        crc.reset();
+        crc.update(window);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,17 @@
+package com.faulttolerance.store.journal;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuração do journal de vendas ({@code sales-journal.*} no application.properties).
+ */
+@ConfigurationProperties(prefix = "sales-journal")
+public record JournalProperties(
+    String directory,       // diretório do journal e dos checkpoints dos destinos
+    int bufferCapacity,     // vendas aguardando gravação, arredondado para potência de 2
+    int batchSize,          // vendas por escrita no arquivo e por entrega aos destinos
+    long flushIntervalMs,   // espera máxima de uma venda no buffer
+    boolean fsync,          // fsync após cada lote
+    long maxBlockingMs,     // espera máxima do /sell com o buffer cheio; depois a venda é recusada
+    long sinkRetryMs        // intervalo entre tentativas de um destino que falhou
+) {}
@@ -0,0 +1,100 @@
+package com.faulttolerance.store.journal;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fila limitada e sem locks de vendas, com vários produtores e um único consumidor.
+ * <p>
+ * Cada slot tem uma sequência: igual à posição, está livre para o produtor que reservou essa posição
+ * por CAS; igual à posição + 1, está preenchido para o consumidor. Os campos ficam em arrays
+ * primitivos, então enfileirar não aloca.
+ */
+final class SaleBuffer {
+
+    interface Drain {
+        void accept(long orderId, long productId, int quantity, long timestamp);
+    }
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final long[] orderIds;
+    private final long[] productIds;
+    private final int[] quantities;
+    private final long[] timestamps;
+    private final AtomicLong tail = new AtomicLong();
+    // Escrito apenas pelo consumidor; volátil para o tamanho lido pelos produtores e pelas métricas
+    private volatile long head;
+
+    SaleBuffer(int capacity) {
+        this.capacity = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = this.capacity - 1;
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.orderIds = new long[this.capacity];
+        this.productIds = new long[this.capacity];
+        this.quantities = new int[this.capacity];
+        this.timestamps = new long[this.capacity];
+    }
+
+    /**
+     * Devolve a posição ocupada pela venda, ou -1 se o buffer está cheio.
+     */
+    long offer(long orderId, long productId, int quantity, long timestamp) {
+        long position = tail.get();
+        while (true) {
+            long available = sequences.get((int) (position & mask)) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = tail.get();
+            } else if (available < 0) {
+                return -1;
+            } else {
+                position = tail.get();
+            }
+        }
+        int slot = (int) (position & mask);
+        orderIds[slot] = orderId;
+        productIds[slot] = productId;
+        quantities[slot] = quantity;
+        timestamps[slot] = timestamp;
+        sequences.lazySet(slot, position + 1);
+        return position;
+    }
+
+    /**
+     * Entrega até {@code max} vendas, na ordem das posições. Chamado apenas pelo consumidor.
+     */
+    int drain(int max, Drain drain) {
+        long position = head;
+        int count = 0;
+        while (count < max) {
+            int slot = (int) (position & mask);
+            if (sequences.get(slot) != position + 1) {
+                break;
+            }
+            drain.accept(orderIds[slot], productIds[slot], quantities[slot], timestamps[slot]);
+            sequences.lazySet(slot, position + capacity);
+            position++;
+            count++;
+        }
+        head = position;
+        return count;
+    }
+
+    /**
+     * Vendas reservadas e ainda não entregues ao consumidor (inclui as que estão sendo escritas).
+     */
+    long size() {
+        return Math.max(0, tail.get() - head);
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,9 @@
+package com.faulttolerance.store.journal;
+
+public record SaleRecord(
+    long sequence,     // posição no journal, a partir de 0
+    long orderId,      // id do pedido devolvido pelo /sell
+    long productId,
+    int quantity,
+    long timestamp     // epoch em milissegundos
+) {}
@@ -0,0 +1,22 @@
+package com.faulttolerance.store.journal;
+
+import java.util.List;
+
+/**
+ * Destino adicional das vendas do journal (por exemplo, uma coleção no MongoDB). Basta registrar um bean:
+ * o {@link SalesJournal} entrega os lotes já gravados no arquivo local, em ordem, e guarda até onde cada
+ * destino confirmou. Depois de uma falha ou reinício, o destino recebe de novo a partir desse ponto, então
+ * {@link #write} deve tolerar vendas repetidas (a {@link SaleRecord#sequence()} serve como chave).
+ */
+public interface SaleSink {
+
+    /**
+     * Nome do destino, usado no arquivo de checkpoint e nas métricas.
+     */
+    String name();
+
+    /**
+     * Grava o lote; só retorna depois de a gravação estar confirmada.
+     */
+    void write(List<SaleRecord> batch) throws Exception;
+}
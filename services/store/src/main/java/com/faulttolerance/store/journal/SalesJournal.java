@@ -0,0 +1,298 @@
+package com.faulttolerance.store.journal;
+
+import com.faulttolerance.common.logging.LogSampler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Journal write-behind das vendas concluídas.
+ * <p>
+ * O {@code /sell} apenas coloca a venda no {@link SaleBuffer}; uma thread dedicada grava lotes de até
+ * {@code batchSize} vendas no arquivo local a cada {@code flushIntervalMs}, ou assim que um lote
+ * completo se acumula. Com o buffer cheio, quem vende espera o flusher (contado em
+ * {@code sales_journal_backpressure_total}) por até {@code maxBlockingMs}; depois disso a venda é recusada
+ * com {@link RejectedExecutionException} e contada em {@code sales_journal_rejected_total}.
+ * <p>
+ * Os {@link SaleSink} registrados rodam em outra thread, acordada após cada gravação, que lê do arquivo as
+ * vendas a partir do checkpoint de cada destino; um destino lento atrasa só o próprio checkpoint, nunca a
+ * gravação. Na inicialização o fim interrompido do arquivo é descartado e cada destino recebe o trecho que
+ * ainda não havia confirmado.
+ */
+@Component
+@EnableConfigurationProperties(JournalProperties.class)
+public class SalesJournal {
+    private static final Logger logger = LoggerFactory.getLogger(SalesJournal.class);
+    private static final LogSampler sampler = LogSampler.of(logger);
+    private static final String FILE_NAME = "sales.journal";
+    private static final long BACKPRESSURE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final SaleBuffer buffer;
+    private final JournalFile file;
+    private final List<Target> targets = new ArrayList<>();
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final boolean fsync;
+    private final long maxBlockingNanos;
+    private final long sinkRetryNanos;
+    private final SaleBuffer.Drain writer;
+    private final Thread flusher;
+    // Null sem destinos
+    private final Thread sinkThread;
+    private final Counter backpressure;
+    private final Counter rejected;
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizes;
+
+    private volatile boolean running = true;
+    private volatile boolean delivering = true;
+
+    public SalesJournal(JournalProperties properties, List<SaleSink> sinks, MeterRegistry registry) {
+        this.batchSize = properties.batchSize();
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(properties.flushIntervalMs());
+        this.fsync = properties.fsync();
+        this.maxBlockingNanos = TimeUnit.MILLISECONDS.toNanos(properties.maxBlockingMs());
+        this.sinkRetryNanos = TimeUnit.MILLISECONDS.toNanos(properties.sinkRetryMs());
+        this.buffer = new SaleBuffer(properties.bufferCapacity());
+
+        Path directory = Paths.get(properties.directory());
+        try {
+            this.file = new JournalFile(directory.resolve(FILE_NAME), batchSize);
+            for (SaleSink sink : sinks) {
+                Target target = new Target(sink, directory.resolve(sink.name() + ".checkpoint"));
+                if (target.checkpoint > file.records()) {
+                    // Journal recriado: o destino volta a receber a partir do início do novo arquivo
+                    target.commit(file.records());
+                }
+                targets.add(target);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open sales journal in " + directory, e);
+        }
+        this.writer = file::put;
+
+        this.backpressure = Counter.builder("sales.journal.backpressure")
+                .description("Sales that waited for room in the journal buffer")
+                .register(registry);
+        this.rejected = Counter.builder("sales.journal.rejected")
+                .description("Sales rejected because the journal buffer stayed full")
+                .register(registry);
+        this.flushTimer = Timer.builder("sales.journal.flush")
+                .description("Time to write a batch of sales to the journal file")
+                .register(registry);
+        this.batchSizes = DistributionSummary.builder("sales.journal.batch.size")
+                .description("Sales per journal write")
+                .register(registry);
+        Gauge.builder("sales.journal.buffered", buffer, SaleBuffer::size)
+                .description("Sales waiting in the journal buffer")
+                .register(registry);
+        Gauge.builder("sales.journal.buffer.capacity", buffer, SaleBuffer::capacity)
+                .description("Capacity of the journal buffer")
+                .register(registry);
+        Gauge.builder("sales.journal.records", file, JournalFile::records)
+                .description("Sales written to the journal file")
+                .register(registry);
+        for (Target target : targets) {
+            Gauge.builder("sales.journal.sink.lag", target, t -> file.records() - t.checkpoint)
+                    .description("Journaled sales not yet confirmed by the sink")
+                    .tag("sink", target.sink.name())
+                    .register(registry);
+        }
+
+        this.flusher = new CustomizableThreadFactory("sales-journal-").newThread(this::run);
+        flusher.setDaemon(true);
+        flusher.start();
+        // A primeira entrega reenvia aos destinos o que ficou pendente antes do último desligamento
+        this.sinkThread = targets.isEmpty() ? null
+                : new CustomizableThreadFactory("sales-journal-sink-").newThread(this::runSinks);
+        if (sinkThread != null) {
+            sinkThread.setDaemon(true);
+            sinkThread.start();
+        }
+    }
+
+    /**
+     * Registra uma venda concluída; retorna assim que ela está no buffer. Se o buffer continuar cheio por
+     * {@code maxBlockingMs}, lança {@link RejectedExecutionException} e a venda não deve ser confirmada.
+     */
+    public void record(long orderId, long productId, int quantity) {
+        long timestamp = System.currentTimeMillis();
+        long position = buffer.offer(orderId, productId, quantity, timestamp);
+        if (position < 0) {
+            waitForRoom(orderId, productId, quantity, timestamp);
+        } else if (buffer.size() == batchSize) {
+            // Lote completo: não espera o intervalo de flush
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    /**
+     * Vendas gravadas no arquivo.
+     */
+    public long records() {
+        return file.records();
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+            // Os destinos param no fim do lote em andamento; o resto é entregue na próxima inicialização
+            delivering = false;
+            if (sinkThread != null) {
+                LockSupport.unpark(sinkThread);
+                sinkThread.join(TimeUnit.SECONDS.toMillis(10));
+            }
+            file.close();
+            for (Target target : targets) {
+                target.close();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.error("Failed to close sales journal: {}", e.getMessage());
+        }
+    }
+
+    private void waitForRoom(long orderId, long productId, int quantity, long timestamp) {
+        backpressure.increment();
+        long deadline = System.nanoTime() + maxBlockingNanos;
+        do {
+            LockSupport.unpark(flusher);
+            LockSupport.parkNanos(BACKPRESSURE_PARK_NANOS);
+            if (buffer.offer(orderId, productId, quantity, timestamp) >= 0) {
+                return;
+            }
+        } while (System.nanoTime() < deadline);
+
+        rejected.increment();
+        if (sampler.sample()) {
+            logger.error("Sales journal buffer full, sale rejected: orderId={}", orderId);
+        }
+        throw new RejectedExecutionException("Sales journal buffer full");
+    }
+
+    private void run() {
+        while (running) {
+            if (flush() < batchSize) {
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+        }
+        // Desligamento: grava o que ainda está no buffer
+        while (flush() > 0) {
+            // continua até esvaziar
+        }
+    }
+
+    private void runSinks() {
+        while (delivering) {
+            deliver();
+            LockSupport.parkNanos(flushIntervalNanos);
+        }
+    }
+
+    /**
+     * Grava um lote e acorda a thread dos destinos; devolve quantas vendas saíram do buffer.
+     */
+    private int flush() {
+        int drained = 0;
+        if (file.pending() == 0) {
+            drained = buffer.drain(batchSize, writer);
+        }
+        if (file.pending() == 0) {
+            return drained;
+        }
+
+        int pending = file.pending();
+        long start = System.nanoTime();
+        try {
+            file.write(fsync);
+        } catch (IOException e) {
+            logger.error("Failed to write sales journal, retrying: {}", e.getMessage());
+            LockSupport.parkNanos(sinkRetryNanos);
+            return drained;
+        }
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchSizes.record(pending);
+        if (sinkThread != null) {
+            LockSupport.unpark(sinkThread);
+        }
+        return drained;
+    }
+
+    private void deliver() {
+        for (Target target : targets) {
+            if (System.nanoTime() - target.retryAt < 0) {
+                continue;
+            }
+            try {
+                while (delivering && target.checkpoint < file.records()) {
+                    List<SaleRecord> batch = file.read(target.checkpoint, batchSize);
+                    target.sink.write(batch);
+                    target.commit(target.checkpoint + batch.size());
+                }
+            } catch (Exception e) {
+                target.retryAt = System.nanoTime() + sinkRetryNanos;
+                if (sampler.sample()) {
+                    logger.warn("Sales sink {} failed at sale {}, retrying: {}", target.sink.name(), target.checkpoint,
+                            e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Destino adicional e o seu checkpoint: a sequência da próxima venda ainda não confirmada.
+     */
+    private static final class Target implements AutoCloseable {
+        final SaleSink sink;
+        final FileChannel checkpointFile;
+        final ByteBuffer checkpointBuffer = ByteBuffer.allocate(Long.BYTES);
+        long checkpoint;
+        long retryAt = System.nanoTime();
+
+        Target(SaleSink sink, Path path) throws IOException {
+            this.sink = sink;
+            this.checkpointFile = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            if (checkpointFile.read(checkpointBuffer, 0) == Long.BYTES) {
+                checkpoint = checkpointBuffer.flip().getLong();
+            }
+        }
+
+        void commit(long sequence) throws IOException {
+            checkpointBuffer.clear().putLong(sequence).flip();
+            checkpointFile.write(checkpointBuffer, 0);
+            checkpointFile.force(false);
+            checkpoint = sequence;
+        }
+
+        @Override
+        public void close() throws IOException {
+            checkpointFile.close();
+        }
+    }
+}
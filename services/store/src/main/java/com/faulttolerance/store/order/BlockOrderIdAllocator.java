@@ -0,0 +1,50 @@
+package com.faulttolerance.store.order;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Alocação hi/lo: o nó arrenda faixas de {@code blockSize} ids do {@link FileLeaseStore} e as
+ * consome localmente, de modo que o caminho crítico é um único incremento atômico.
+ */
+public class BlockOrderIdAllocator implements OrderIdAllocator {
+    private final FileLeaseStore leaseStore;
+    private final int blockSize;
+    private volatile Block block;
+
+    public BlockOrderIdAllocator(FileLeaseStore leaseStore, int blockSize) {
+        this.leaseStore = leaseStore;
+        this.blockSize = blockSize;
+        this.block = lease();
+    }
+
+    @Override
+    public long nextId() {
+        while (true) {
+            Block current = block;
+            long id = current.next.getAndIncrement();
+            if (id < current.end) {
+                return id;
+            }
+            synchronized (this) {
+                if (block == current) {
+                    block = lease();
+                }
+            }
+        }
+    }
+
+    private Block lease() {
+        long start = leaseStore.lease(blockSize);
+        return new Block(start, start + blockSize);
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.faulttolerance.store.order;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Coordenador de blocos de ids baseado em arquivo: guarda o próximo id ainda não concedido.
+ * Cada concessão é feita sob lock exclusivo do arquivo e gravada com fsync antes de ser usada,
+ * então réplicas que compartilham o arquivo nunca recebem faixas sobrepostas, e um reinício
+ * nunca reutiliza uma faixa já concedida (as sobras são descartadas).
+ */
+public class FileLeaseStore {
+    private final Path file;
+
+    public FileLeaseStore(Path file) {
+        this.file = file;
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create lease directory for " + file, e);
+        }
+    }
+
+    /**
+     * @return o primeiro id da faixa {@code [start, start + size)} concedida
+     */
+    public synchronized long lease(int size) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+            long start = 1L;
+            if (channel.read(buffer, 0) == Long.BYTES) {
+                start = buffer.flip().getLong();
+            }
+            buffer.clear().putLong(Math.addExact(start, size)).flip();
+            channel.write(buffer, 0);
+            channel.force(true);
+            return start;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to lease order ids from " + file, e);
+        }
+    }
+
+    /**
+     * Marca d'água dos ids ordenados no tempo: eleva o valor gravado para pelo menos {@code minimum},
+     * com fsync antes de retornar.
+     *
+     * @return a marca gravada (0 se o arquivo ainda não existia e {@code minimum} é 0)
+     */
+    public synchronized long raise(long minimum) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+            long mark = 0L;
+            if (channel.read(buffer, 0) == Long.BYTES) {
+                mark = buffer.flip().getLong();
+            }
+            if (mark >= minimum) {
+                return mark;
+            }
+            buffer.clear().putLong(minimum).flip();
+            channel.write(buffer, 0);
+            channel.force(true);
+            return minimum;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to raise order id high-water mark in " + file, e);
+        }
+    }
+}
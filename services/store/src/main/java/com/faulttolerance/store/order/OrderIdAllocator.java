@@ -0,0 +1,10 @@
+package com.faulttolerance.store.order;
+
+/**
+ * Gera ids de pedido únicos entre réplicas e reinícios do store.
+ * A implementação é escolhida por {@code order-id.mode}: {@code block} ou {@code time}.
+ */
+public interface OrderIdAllocator {
+
+    long nextId();
+}
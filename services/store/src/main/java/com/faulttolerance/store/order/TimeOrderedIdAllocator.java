@@ -0,0 +1,89 @@
+package com.faulttolerance.store.order;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ids de 64 bits ordenados no tempo: 41 bits de milissegundos desde {@link #EPOCH_MILLIS},
+ * 10 bits de nó e 12 bits de sequência. Cada réplica precisa de um {@code nodeId} próprio.
+ * <p>
+ * O par (milissegundo, sequência) avança por CAS e nunca retrocede nem passa à frente do relógio:
+ * se a sequência de um milissegundo se esgotar, ou se o relógio voltar, a alocação espera o relógio
+ * passar do último milissegundo usado (e falha se o atraso passar de {@link #MAX_CLOCK_WAIT_MILLIS}).
+ * <p>
+ * Para que um reinício não reemita ids, o nó arrenda janelas de {@link #LEASE_MILLIS} à frente no
+ * {@link FileLeaseStore} antes de usá-las; ao subir, só volta a emitir depois que o relógio passa da
+ * marca gravada.
+ */
+public class TimeOrderedIdAllocator implements OrderIdAllocator {
+    static final long EPOCH_MILLIS = 1_704_067_200_000L; // 2024-01-01T00:00:00Z
+    static final long LEASE_MILLIS = 1_000L;
+    static final long MAX_CLOCK_WAIT_MILLIS = 5_000L;
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeBits;
+    private final FileLeaseStore highWater;
+    // (milissegundos desde a época << SEQUENCE_BITS) | sequência
+    private final AtomicLong state;
+    // Primeiro milissegundo ainda não arrendado; ids só usam milissegundos abaixo dele
+    private volatile long leasedUntil;
+
+    public TimeOrderedIdAllocator(long nodeId, FileLeaseStore highWater) {
+        if (nodeId < 0 || nodeId > MAX_NODE) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE);
+        }
+        this.nodeBits = nodeId << SEQUENCE_BITS;
+        this.highWater = highWater;
+        this.leasedUntil = highWater.raise(0);
+        // Tudo abaixo da marca pode ter sido emitido antes do reinício: trata como esgotado
+        this.state = new AtomicLong(leasedUntil > 0 ? ((leasedUntil - 1) << SEQUENCE_BITS) | MAX_SEQUENCE : 0);
+    }
+
+    @Override
+    public long nextId() {
+        while (true) {
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+            long previous = state.get();
+            long previousMillis = previous >>> SEQUENCE_BITS;
+            long next;
+            if (now > previousMillis) {
+                next = now << SEQUENCE_BITS;
+            } else if ((previous & MAX_SEQUENCE) < MAX_SEQUENCE) {
+                next = previous + 1;
+            } else {
+                awaitMillisAfter(previousMillis, now);
+                continue;
+            }
+            long millis = next >>> SEQUENCE_BITS;
+            if (millis >= leasedUntil) {
+                extendLease(millis);
+            }
+            if (state.compareAndSet(previous, next)) {
+                return (millis << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (next & MAX_SEQUENCE);
+            }
+        }
+    }
+
+    private void awaitMillisAfter(long millis, long now) {
+        long behind = millis - now;
+        if (behind > MAX_CLOCK_WAIT_MILLIS) {
+            throw new IllegalStateException(
+                    "Clock is " + behind + " ms behind the last issued order id; refusing to issue ids");
+        }
+        if (behind > 0) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(behind));
+        } else {
+            Thread.onSpinWait();
+        }
+    }
+
+    private synchronized void extendLease(long millis) {
+        if (millis >= leasedUntil) {
+            leasedUntil = highWater.raise(millis + LEASE_MILLIS);
+        }
+    }
+}
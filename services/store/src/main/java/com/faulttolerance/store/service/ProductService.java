@@ -1,26 +1,55 @@
 package com.faulttolerance.store.service;
 
+import com.faulttolerance.common.fault.FaultInjector;
+import com.faulttolerance.common.fault.FaultPoint;
+import com.faulttolerance.store.catalog.ProductCatalog;
 import com.faulttolerance.store.model.Product;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 @Service
 public class ProductService {
-    private final Map<Long, Product> products = new ConcurrentHashMap<>();
+    // Fail (Omission, 0.2, 0s), configurado em faults.points.product
+    public static final String FAULT_POINT = "product";
 
-    public ProductService() {
-        products.put(1L, new Product(1L, "Laptop", new BigDecimal("999.99")));
-        products.put(2L, new Product(2L, "Smartphone", new BigDecimal("499.99")));
-        products.put(3L, new Product(3L, "Tablet", new BigDecimal("299.99")));
+    private final ProductCatalog catalog;
+    private final FaultPoint omission;
+
+    public ProductService(ProductCatalog catalog, FaultInjector faultInjector) {
+        this.catalog = catalog;
+        this.omission = faultInjector.point(FAULT_POINT);
+    }
+
+    public CompletableFuture<Product> getProduct(Long id) {
+        return omission.supply(() -> catalog.get(id));
+    }
+
+    public CompletableFuture<List<Product>> getProducts(List<Long> ids) {
+        return omission.supply(() -> {
+            List<Product> products = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                Product product = id == null ? null : catalog.get(id);
+                if (product != null) {
+                    products.add(product);
+                }
+            }
+            return products;
+        });
+    }
+
+    /**
+     * A falha é avaliada antes do primeiro produto, para que a resposta em streaming
+     * ainda possa ser um 500.
+     */
+    public CompletableFuture<Void> checkAvailable() {
+        return omission.supply(() -> null);
     }
 
-    public Product getProduct(Long id) {
-        if (Math.random() < 0.2) {
-            throw new RuntimeException("Fail (Omission, 0.2, 0s)");
-        }
-        return products.get(id);
+    public void forEachProduct(int offset, int limit, Consumer<Product> consumer) {
+        catalog.forEach(offset, limit, consumer);
     }
 }
@@ -1,45 +1,60 @@
 package com.faulttolerance.store.service;
 
+import com.faulttolerance.common.fault.FaultInjector;
+import com.faulttolerance.common.fault.FaultPoint;
+import com.faulttolerance.store.inventory.InventoryService;
+import com.faulttolerance.store.inventory.Reservation;
+import com.faulttolerance.store.journal.SalesJournal;
+import com.faulttolerance.store.order.OrderIdAllocator;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 public class SaleService {
+    // Fail (Error, 0.1, 5s), configurado em faults.points.sale
+    public static final String FAULT_POINT = "sale";
+
     private final ProductService productService;
-    private final AtomicLong orderIdGenerator = new AtomicLong(0);
-    private final AtomicBoolean inErrorState = new AtomicBoolean(false);
-    private LocalDateTime errorStateUntil;
+    private final InventoryService inventoryService;
+    private final OrderIdAllocator orderIdAllocator;
+    private final SalesJournal journal;
+    private final FaultPoint error;
 
-    public SaleService(ProductService productService) {
+    public SaleService(ProductService productService, InventoryService inventoryService,
+                       OrderIdAllocator orderIdAllocator, SalesJournal journal, FaultInjector faultInjector) {
         this.productService = productService;
+        this.inventoryService = inventoryService;
+        this.orderIdAllocator = orderIdAllocator;
+        this.journal = journal;
+        this.error = faultInjector.point(FAULT_POINT);
     }
 
-    public Long processSale(Long productId) {
+    public CompletableFuture<Long> processSale(Long productId) {
         // Verifica se o produto existe
-        var product = productService.getProduct(productId);
-        if (product == null) {
-            throw new IllegalArgumentException("Product not found");
-        }
-
-        // Se está em estado de erro e ainda não passou o tempo
-        if (inErrorState.get() && LocalDateTime.now().isBefore(errorStateUntil)) {
-            throw new RuntimeException("Service in error state");
-        }
-
-        // 10% de chance de entrar em estado de erro por 5s
-        if (Math.random() < 0.1) {
-            inErrorState.set(true);
-            errorStateUntil = LocalDateTime.now().plusSeconds(5);
-            throw new RuntimeException("Fail (Error, 0.1, 5s)");
-        }
-
-        // Se chegou aqui, reseta o estado de erro se necessário
-        inErrorState.set(false);
-        
-        // Gera e retorna o ID único da transação
-        return orderIdGenerator.incrementAndGet();
+        return productService.getProduct(productId).thenCompose(product -> {
+            if (product == null) {
+                throw new IllegalArgumentException("Product not found");
+            }
+
+            // A falha (e o estado de erro) é sorteada antes da reserva, que assim nunca precisa ser desfeita
+            return error.supply(() -> {
+                // Reserva uma unidade; sem estoque lança OutOfStockException
+                Reservation reservation = inventoryService.reserve(productId, 1);
+
+                // Gera o ID único da transação e registra a venda; a gravação em disco fica com o journal.
+                // Com o journal saturado a venda é recusada e a unidade volta ao estoque
+                long orderId = orderIdAllocator.nextId();
+                try {
+                    journal.record(orderId, productId, reservation.quantity());
+                } catch (RejectedExecutionException e) {
+                    inventoryService.release(reservation);
+                    throw e;
+                }
+                inventoryService.commit(reservation);
+                return orderId;
+            });
+        });
     }
-}
\ No newline at end of file
+}